@@ -7,6 +7,28 @@ import junit.framework.TestCase;
  */
 public class LTLControlRulesTest extends TestCase
 {
+	// -- (:- (3) (4))
+	private static class Derived extends Axiom
+	{
+		public Derived()
+		{
+			super(new Predicate(3, 0, TermList.NIL), 1, new int[] { 4 });
+		}
+
+		public Precondition getIterator(Term[] unifier, int which)
+		{
+			Precondition p = (new PreconditionAtomic(new Predicate(4, 0,
+			  TermList.NIL), unifier)).setComparator(null);
+			p.reset();
+
+			return p;
+		}
+
+		public String getLabel(int which)
+		{
+			return "Derived";
+		}
+	}
 
 	private LTLAtom p1;
 	private LTLAtom p2;
@@ -857,4 +879,78 @@ public class LTLControlRulesTest extends TestCase
 		      + "})})"));
 	}
 
+	// -- Whether (always f) survives progression, with f evaluated again only if
+	// -- the atoms it refers to have changed.
+	private boolean holds(LTLExpression f)
+	{
+		s.clearControlRules();
+		s.addControlRule(new LTLAlways(f));
+
+		return s.progress();
+	}
+
+	public void testProgressReusesValues()
+	{
+		// -- (and (1) (not (3)))
+		LTLExpression f = new LTLConjunction(new LTLExpression[] { p1,
+		  new LTLNegation(p3) });
+
+		assertTrue(holds(f));
+		LTLValue v = f.value;
+		assertNotNull(v);
+
+		// -- Nothing it refers to has changed.
+		assertTrue(holds(f));
+		assertSame(v, f.value);
+
+		s.add(p4.getAtom());
+		assertTrue(holds(f));
+		assertSame(v, f.value);
+
+		// -- Adding one of its heads.
+		int mark = s.mark();
+		s.add(p3.getAtom());
+		assertFalse(holds(f));
+		assertNotSame(v, f.value);
+
+		// -- Rolling the addition back.
+		s.rollback(mark);
+		assertTrue(holds(f));
+		v = f.value;
+		assertTrue(holds(f));
+		assertSame(v, f.value);
+
+		// -- Deleting one of its heads.
+		s.del(p1.getAtom());
+		assertFalse(holds(f));
+		assertNotSame(v, f.value);
+	}
+
+	public void testProgressDerivedHead()
+	{
+		Axiom[][] axioms = new Axiom[8][0];
+		axioms[3] = new Axiom[] { new Derived() };
+
+		s = new State(8, axioms);
+		new Planner(null, s).setCurrent();
+
+		// -- (not (3)), where (3) is proved by the axiom from (4).
+		LTLExpression f = new LTLNegation(p3);
+
+		assertTrue(holds(f));
+		LTLValue v = f.value;
+		assertTrue(holds(f));
+		assertSame(v, f.value);
+
+		s.add(p1.getAtom());
+		assertTrue(holds(f));
+		assertSame(v, f.value);
+
+		int mark = s.mark();
+		s.add(p4.getAtom());
+		assertFalse(holds(f));
+
+		s.rollback(mark);
+		assertTrue(holds(f));
+	}
 }
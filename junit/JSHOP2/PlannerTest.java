@@ -0,0 +1,518 @@
+package JSHOP2;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+public class PlannerTest extends TestCase
+{
+	// -- (:operator (!take ?x ?c) () () () ?c)
+	private static class Take extends Operator
+	{
+		public Take()
+		{
+			super(new Predicate(0, 2, new TermList(TermVariable.getVariable(0),
+			  new TermList(TermVariable.getVariable(1), TermList.NIL))), -1, -1,
+			  TermVariable.getVariable(1), LTLTrue.getInstance());
+
+			setDel(new DelAddElement[0]);
+			setAdd(new DelAddElement[0]);
+		}
+
+		public Precondition getIterator(Term[] unifier, int which)
+		{
+			Precondition p = (new PreconditionNil(2)).setComparator(null);
+			p.reset();
+
+			return p;
+		}
+	}
+
+	// -- (:method (pick) ((item ?x ?c)) ((!take ?x ?c)))
+	private static class Pick extends Method
+	{
+		public Pick()
+		{
+			super(new Predicate(0, 2, TermList.NIL), LTLTrue.getInstance());
+
+			TaskList sub = new TaskList(1, true);
+			sub.subtasks[0] = new TaskList(new TaskAtom(new Predicate(0, 2,
+			  new TermList(TermVariable.getVariable(0), new TermList(
+			  TermVariable.getVariable(1), TermList.NIL))), false, true));
+
+			setSubs(new TaskList[] { sub });
+		}
+
+		public Precondition getIterator(Term[] unifier, int which)
+		{
+			if(which != 0)
+				return null;
+
+			Precondition p = (new PreconditionAtomic(new Predicate(0, 2,
+			  new TermList(TermVariable.getVariable(0), new TermList(
+			  TermVariable.getVariable(1), TermList.NIL))), unifier))
+			  .setComparator(null);
+			p.reset();
+
+			return p;
+		}
+
+		public String getLabel(int which)
+		{
+			return (which == 0) ? "Pick" : null;
+		}
+	}
+
+	// -- A domain in which (pick) takes any one item, at the cost of that item.
+	// -- With two methods for (pick), every plan can be found in two ways.
+	private static class Items extends Domain
+	{
+		public Items(int methodCount)
+		{
+			TermVariable.initialize(2);
+
+			controlRules = LTLTrue.getInstance();
+
+			constants = new String[] { "item" };
+			compoundTasks = new String[] { "pick" };
+			primitiveTasks = new String[] { "!take" };
+
+			methods = new Method[1][methodCount];
+
+			for(int i = 0; i < methodCount; i++)
+				methods[0][i] = new Pick();
+
+			ops = new Operator[][] { { new Take() } };
+			axioms = new Axiom[1][0];
+		}
+	}
+
+	// -- The costs of the items a, b, c and d.
+	private static final double[] COSTS = { 3, 1, 2, 1 };
+
+	private Domain d;
+
+	public void setUp()
+	{
+		TermConstant.initialize(1 + COSTS.length);
+		d = new Items(1);
+		d.setProblemConstants(new String[] { "a", "b", "c", "d" });
+	}
+
+	private Planner planner()
+	{
+		State s = new State(1, d.getAxioms());
+
+		for(int i = 0; i < COSTS.length; i++)
+			s.add(new Predicate(0, 0, new TermList(TermConstant.getConstant(i + 1),
+			  new TermList(new TermNumber(COSTS[i]), TermList.NIL))));
+
+		return new Planner(d, s);
+	}
+
+	// -- The task list of picking n items, one after the other.
+	private static TaskList picks(int n)
+	{
+		TaskList tl = new TaskList(n, true);
+
+		for(int i = 0; i < n; i++)
+			tl.subtasks[i] = new TaskList(new TaskAtom(new Predicate(0, 0,
+			  TermList.NIL), false, false));
+
+		return tl;
+	}
+
+	// -- The items taken in a plan, e.g. "bd".
+	private static String items(Plan plan)
+	{
+		Predicate[] ops = plan.getOperators();
+		StringBuffer retVal = new StringBuffer();
+
+		for(int i = 0; i < ops.length; i++)
+		{
+			Term x = ((TermList) ops[i].getParam()).getList().getHead();
+			retVal.append((char) ('a' + ((TermConstant) x).getIndex() - 1));
+		}
+
+		return retVal.toString();
+	}
+
+	private static String items(LinkedList plans)
+	{
+		StringBuffer retVal = new StringBuffer();
+
+		for(int i = 0; i < plans.size(); i++)
+			retVal.append(items((Plan) plans.get(i))).append(' ');
+
+		return retVal.toString();
+	}
+
+	// -- An executor that runs nothing until it is told to.
+	private static class Queue implements Executor
+	{
+		private ArrayList<Runnable> runnables = new ArrayList<Runnable>();
+
+		public void execute(Runnable r)
+		{
+			runnables.add(r);
+		}
+
+		public void runAll()
+		{
+			for(int i = 0; i < runnables.size(); i++)
+				runnables.get(i).run();
+
+			runnables.clear();
+		}
+	}
+
+	// -- A listener that counts the plans it is told about.
+	private static class Counter implements PlanListener
+	{
+		int count;
+
+		public void planFound(Plan plan)
+		{
+			count++;
+		}
+	}
+
+	public void testSequential()
+	{
+		LinkedList plans = planner().findPlans(picks(2), Integer.MAX_VALUE);
+
+		assertEquals(16, plans.size());
+		assertEquals("aa", items((Plan) plans.getFirst()));
+		assertEquals("dd", items((Plan) plans.getLast()));
+		assertEquals(6.0, ((Plan) plans.getFirst()).getCost(), 0);
+	}
+
+	public void testDistinctPlans()
+	{
+		String single = items(planner().findPlans(picks(2), Integer.MAX_VALUE));
+
+		// -- Every plan is found twice, once by each method.
+		d = new Items(2);
+		assertEquals(64, planner().findPlans(picks(2), Integer.MAX_VALUE).size());
+		assertEquals("aa ab ac ad aa ", items(planner().findPlans(picks(2), 5)));
+
+		// -- Only the first time each plan is found counts.
+		Planner p = planner();
+		p.setDistinctPlans(true);
+		assertEquals(single, items(p.findPlans(picks(2), Integer.MAX_VALUE)));
+
+		p = planner();
+		p.setDistinctPlans(true);
+		LinkedList plans = p.findPlans(picks(2), 5);
+		assertEquals(5, plans.size());
+		assertEquals("aa ab ac ad ba ", items(plans));
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try
+		{
+			for(int levels = 1; levels <= 4; levels++)
+			{
+				p = planner();
+				p.setDistinctPlans(true);
+				p.setParallel(pool, levels, true);
+				assertEquals("aa ab ac ad ba ", items(p.findPlans(picks(2), 5)));
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	public void testCheapest()
+	{
+		// -- Every item costs at least 1.
+		CostBound oneEach = new CostBound()
+		{
+			public double lowerBound(TaskNetwork tasks, State s)
+			{
+				return tasks.size();
+			}
+		};
+
+		CostBound[] bounds = { null, oneEach };
+
+		for(int i = 0; i < bounds.length; i++)
+		{
+			Planner p = planner();
+			p.setOptimal(true, bounds[i]);
+
+			// -- Only the cheapest plan is returned, however many are asked for.
+			LinkedList plans = p.findPlans(picks(3), 5);
+			assertEquals(1, plans.size());
+			assertEquals(3.0, ((Plan) plans.getFirst()).getCost(), 0);
+
+			// -- Of the plans that cost the same, the first one found is returned.
+			assertEquals("bbb", items((Plan) plans.getFirst()));
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try
+		{
+			for(int levels = 1; levels <= 4; levels++)
+			{
+				Planner p = planner();
+				p.setOptimal(true, oneEach);
+				p.setParallel(pool, levels, true);
+				LinkedList plans = p.findPlans(picks(3), 1);
+				assertEquals(1, plans.size());
+				assertEquals("bbb", items((Plan) plans.getFirst()));
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	public void testParallelDeterministic()
+	{
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try
+		{
+			for(int planNo = 1; planNo <= 70; planNo += 23)
+			{
+				String expected = items(planner().findPlans(picks(3), planNo));
+
+				// -- The plans are the same, in the same order, wherever the search
+				// -- tree is split.
+				for(int levels = 1; levels <= 6; levels++)
+				{
+					Planner p = planner();
+					p.setParallel(pool, levels, true);
+					assertEquals(expected, items(p.findPlans(picks(3), planNo)));
+				}
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	public void testCancel() throws Exception
+	{
+		// -- Cancelled before the search has started.
+		Planner p = planner();
+		Counter c = new Counter();
+		p.setListener(c);
+		Queue q = new Queue();
+		Future<LinkedList<Plan>> f = p.submit(q, picks(2), Integer.MAX_VALUE);
+		p.cancel();
+		q.runAll();
+		assertEquals(0, f.get().size());
+		assertEquals(0, c.count);
+		assertFalse(p.isComplete());
+
+		// -- A new search is not given up because the last one was.
+		assertEquals(16, p.findPlans(picks(2), Integer.MAX_VALUE).size());
+		assertTrue(p.isComplete());
+
+		// -- Cancelled during the search, as soon as the first plan is found.
+		final Planner p2 = planner();
+		p2.setListener(new PlanListener()
+		{
+			public void planFound(Plan plan)
+			{
+				p2.cancel();
+			}
+		});
+		LinkedList<Plan> plans = p2.findPlans(picks(2), Integer.MAX_VALUE);
+		assertEquals("aa ", items(plans));
+		assertFalse(p2.isComplete());
+	}
+
+	public void testCancelFuture() throws Exception
+	{
+		Planner p = planner();
+		Counter c = new Counter();
+		p.setListener(c);
+		Queue q = new Queue();
+
+		// -- The future is cancelled before the executor runs it.
+		Future<LinkedList<Plan>> f = p.submit(q, picks(2), Integer.MAX_VALUE);
+		assertTrue(f.cancel(false));
+		q.runAll();
+		assertTrue(f.isCancelled());
+		assertEquals(0, c.count);
+		assertFalse(p.isComplete());
+
+		// -- Cancelling a future that is done does not give up the next search.
+		f = p.submit(q, picks(2), Integer.MAX_VALUE);
+		q.runAll();
+		assertEquals(16, f.get().size());
+		assertFalse(f.cancel(false));
+		assertTrue(p.isComplete());
+	}
+
+	public void testCancelThread() throws Exception
+	{
+		Planner p = planner();
+		Counter c = new Counter();
+		p.setListener(c);
+		final CountDownLatch started = new CountDownLatch(1);
+
+		// -- The thread is cancelled after it has been started, but before its
+		// -- search has started.
+		SolverThread t = new SolverThread(p, picks(2), Integer.MAX_VALUE)
+		{
+			public void run()
+			{
+				try
+				{
+					started.await();
+				}
+				catch(InterruptedException e)
+				{
+					return;
+				}
+
+				super.run();
+			}
+		};
+
+		t.start();
+		t.cancel();
+		started.countDown();
+		t.join();
+
+		assertEquals(0, c.count);
+		assertFalse(p.isComplete());
+	}
+
+	public void testNodeLimit()
+	{
+		// -- The first plan takes 4 nodes, and the search stops at the 5th.
+		Planner p = planner();
+		p.setLimits(0, 5);
+		LinkedList<Plan> plans = p.findPlans(picks(2), Integer.MAX_VALUE);
+		assertFalse(p.isComplete());
+		assertEquals("aa ", items(plans));
+
+		p.setLimits(0, 0);
+		assertEquals(16, p.findPlans(picks(2), Integer.MAX_VALUE).size());
+		assertTrue(p.isComplete());
+	}
+
+	public void testIteratePlans()
+	{
+		LinkedList<Plan> all = planner().findPlans(picks(2), Integer.MAX_VALUE);
+
+		// -- The plans are found one by one, in the same order, asking whether
+		// -- there is a next plan more than once in between.
+		Iterator<Plan> e = planner().iteratePlans(picks(2));
+
+		for(int i = 0; i < all.size(); i++)
+		{
+			assertTrue(e.hasNext());
+			assertTrue(e.hasNext());
+			Plan plan = e.next();
+			assertEquals(items(all.get(i)), items(plan));
+			assertEquals(all.get(i).getCost(), plan.getCost(), 0);
+		}
+
+		assertFalse(e.hasNext());
+		assertFalse(e.hasNext());
+
+		try
+		{
+			e.next();
+			fail();
+		}
+		catch(NoSuchElementException ex)
+		{
+		}
+
+		// -- Only the first time each plan is found counts.
+		d = new Items(2);
+		Planner p = planner();
+		p.setDistinctPlans(true);
+		e = p.iteratePlans(picks(2));
+		StringBuffer found = new StringBuffer();
+
+		while(e.hasNext())
+			found.append(items(e.next())).append(' ');
+
+		assertEquals(items(all), found.toString());
+
+		// -- Only the plans that are needed are looked for.
+		d = new Items(1);
+		e = planner().streamPlans(picks(2)).limit(5).iterator();
+		found = new StringBuffer();
+
+		while(e.hasNext())
+			found.append(items(e.next())).append(' ');
+
+		assertEquals(items(planner().findPlans(picks(2), 5)), found.toString());
+	}
+
+	public void testIterateCheapest()
+	{
+		Planner p = planner();
+		p.setOptimal(true, null);
+		Iterator<Plan> e = p.iteratePlans(picks(3));
+
+		assertTrue(e.hasNext());
+		Plan plan = e.next();
+		assertEquals("bbb", items(plan));
+		assertEquals(3.0, plan.getCost(), 0);
+		assertFalse(e.hasNext());
+	}
+
+	public void testAnytime()
+	{
+		for(int limit = 0; limit <= 30; limit += 10)
+		{
+			final ArrayList<Plan> reported = new ArrayList<Plan>();
+			Planner p = planner();
+			p.setOptimal(true, null);
+			p.setLimits(0, limit);
+			p.setListener(new PlanListener()
+			{
+				public void planFound(Plan plan)
+				{
+					reported.add(plan);
+				}
+			});
+
+			LinkedList<Plan> plans = p.findPlans(picks(3), 1);
+
+			// -- The listener is told about each plan cheaper than the ones before.
+			assertTrue(reported.size() > 1);
+
+			for(int i = 1; i < reported.size(); i++)
+				assertTrue(reported.get(i).getCost() < reported.get(i - 1).getCost());
+
+			// -- The plan returned is the cheapest one found before the search
+			// -- stopped.
+			assertEquals(1, plans.size());
+			assertSame(reported.get(reported.size() - 1), plans.getFirst());
+
+			if(limit == 0)
+			{
+				assertTrue(p.isComplete());
+				assertEquals("bbb", items(plans.getFirst()));
+			}
+			else
+			{
+				assertFalse(p.isComplete());
+				assertTrue(plans.getFirst().getCost() > 3);
+			}
+		}
+	}
+}
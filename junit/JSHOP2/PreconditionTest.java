@@ -0,0 +1,270 @@
+package JSHOP2;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class PreconditionTest extends TestCase
+{
+	private static class Fixed extends Precondition
+	{
+		private Term[][] satisfiers;
+		private int next;
+
+		public Fixed(Term[][] satisfiersIn)
+		{
+			satisfiers = satisfiersIn;
+		}
+
+		public void bind(Term[] binding)
+		{
+		}
+
+		protected Term[] nextBindingHelper()
+		{
+			return (next == satisfiers.length) ? null : satisfiers[next++];
+		}
+
+		protected void resetHelper()
+		{
+			next = 0;
+		}
+
+		public void setUnifier(Term[] unifier)
+		{
+		}
+	}
+
+	private Term[][] satisfiers(Random r, int n)
+	{
+		Term[][] retVal = new Term[n][];
+
+		for(int i = 0; i < n; i++)
+			retVal[i] = new Term[] { new TermNumber(r.nextInt(5)), new TermNumber(i) };
+
+		return retVal;
+	}
+
+	public void testSortBy()
+	{
+		Random r = new Random(42);
+
+		for(int n = 0; n < 40; n++)
+		{
+			Term[][] s = satisfiers(r, n);
+			Term[][] sorted = (Term[][]) s.clone();
+			Arrays.sort(sorted, new CompLess(0));
+
+			Precondition p = new Fixed(s).setComparator(new CompLess(0));
+
+			// -- Each reset must forget whatever was left over from the one before.
+			for(int k = 0; k <= n; k += 3)
+			{
+				p.reset();
+
+				for(int i = 0; i < k; i++)
+					assertSame(sorted[i], p.nextBinding());
+			}
+
+			p.reset();
+
+			for(int i = 0; i < n; i++)
+				assertSame(sorted[i], p.nextBinding());
+
+			assertNull(p.nextBinding());
+			assertNull(p.nextBinding());
+		}
+	}
+
+	// -- The state with (node i) for i from 0 to 11, and (edge x y) for 60
+	// -- random x and y, the current state of the calling thread.
+	private State graph()
+	{
+		Random r = new Random(7);
+		State s = new State(2, new Axiom[2][0]);
+
+		for(int i = 0; i < 12; i++)
+			s.add(new Predicate(1, 0, new TermList(new TermNumber(i),
+			  TermList.NIL)));
+
+		for(int i = 0; i < 60; i++)
+			s.add(new Predicate(0, 0, new TermList(new TermNumber(r.nextInt(12)),
+			  new TermList(new TermNumber(r.nextInt(12)), TermList.NIL))));
+
+		new Planner(null, s).setCurrent();
+
+		return s;
+	}
+
+	// -- (edge ?x ?y)
+	private static PreconditionAtomic edge(Term[] unifier)
+	{
+		return new PreconditionAtomic(new Predicate(0, 2, new TermList(
+		  TermVariable.getVariable(0), new TermList(TermVariable.getVariable(1),
+		  TermList.NIL))), unifier);
+	}
+
+	// -- All the satisfiers left in a precondition.
+	private static String rest(Precondition p)
+	{
+		StringBuffer retVal = new StringBuffer();
+		Term[] b;
+
+		while((b = p.nextBinding()) != null)
+		{
+			for(int i = 0; i < b.length; i++)
+				retVal.append(b[i]).append(' ');
+
+			retVal.append(", ");
+		}
+
+		return retVal.toString();
+	}
+
+	// -- All the satisfiers of a precondition under a binding.
+	private static String satisfiers(Precondition p, Term[] binding)
+	{
+		p.reset();
+		p.bind(binding);
+
+		return rest(p);
+	}
+
+	public void testHashJoin()
+	{
+		TermVariable.initialize(2);
+		graph();
+
+		Term[] none = new Term[2];
+		PreconditionHashJoin join = new PreconditionHashJoin(edge(none),
+		  new boolean[] { true, true });
+		PreconditionAtomic atomic = edge(none);
+
+		// -- The table is built for bindings of ?x, and has to grow to hold them.
+		for(int x = 11; x >= 0; x--)
+		{
+			Term[] binding = { new TermNumber(x), null };
+			assertEquals(satisfiers(atomic, binding), satisfiers(join, binding));
+		}
+
+		// -- Bindings that do not bind ?x are not looked up in the table.
+		for(int y = 0; y < 12; y++)
+		{
+			Term[] binding = { null, new TermNumber(y) };
+			assertEquals(satisfiers(atomic, binding), satisfiers(join, binding));
+		}
+
+		assertEquals(satisfiers(atomic, none), satisfiers(join, none));
+
+		Term[] binding = { new TermNumber(3), null };
+		assertEquals(satisfiers(atomic, binding), satisfiers(join, binding));
+	}
+
+	public void testJoinedConjunction()
+	{
+		TermVariable.initialize(2);
+		State s = graph();
+
+		// -- (and (node ?x) (edge ?x ?y))
+		Term[] none = new Term[2];
+		Precondition p = new PreconditionConjunction(new Precondition[] {
+		  new PreconditionAtomic(new Predicate(1, 2, new TermList(
+		  TermVariable.getVariable(0), TermList.NIL)), none), edge(none) });
+
+		s.setJoinThreshold(0);
+		p.reset();
+		String expected = rest(p);
+		assertTrue(expected.length() > 0);
+
+		// -- With the smallest threshold, the satisfiers of (edge ?x ?y) are
+		// -- found by a hash join after the first few values of ?x.
+		s.setJoinThreshold(1);
+
+		for(int i = 0; i < 2; i++)
+		{
+			p.reset();
+			assertEquals(expected, rest(p));
+		}
+	}
+
+	// -- (edge ?a ?b) for two variables ?a and ?b.
+	private static PreconditionAtomic edge(int a, int b, Term[] unifier)
+	{
+		return new PreconditionAtomic(new Predicate(0, 5, new TermList(
+		  TermVariable.getVariable(a), new TermList(TermVariable.getVariable(b),
+		  TermList.NIL))), unifier);
+	}
+
+	// -- (call f ?a ?b) for two variables ?a and ?b.
+	private static TermCall call(Calculate f, int a, int b)
+	{
+		return new TermCall(new List(TermVariable.getVariable(a), new TermList(
+		  TermVariable.getVariable(b), TermList.NIL)), f, "f");
+	}
+
+	// -- (and (edge ?u ?y) (node ?x) (call < ?u ?x) (assign ?z (call + ?u ?y))
+	// --      (not (edge ?x ?u)) (forall (?w) (edge ?y ?w) (call < ?u ?w)) nil)
+	// -- for ?u, ?x, ?y, ?z and ?w, where ?u is bound by the unifier.
+	private static Precondition tree(Term[] unifier)
+	{
+		return new PreconditionConjunction(new Precondition[] {
+		  edge(0, 2, unifier),
+		  new PreconditionAtomic(new Predicate(1, 5, new TermList(
+		    TermVariable.getVariable(1), TermList.NIL)), unifier),
+		  new PreconditionCall(call(StdLib.less, 0, 1), unifier),
+		  new PreconditionAssign(call(StdLib.plus, 0, 2), unifier, 3),
+		  new PreconditionNegation(edge(1, 0, unifier), 5),
+		  new PreconditionForAll(edge(2, 4, unifier),
+		    new PreconditionCall(call(StdLib.less, 0, 4), unifier), 5),
+		  new PreconditionNil(5) });
+	}
+
+	private static Term[] unifier(int u)
+	{
+		return new Term[] { new TermNumber(u), null, null, null, null };
+	}
+
+	public void testSetUnifier()
+	{
+		TermVariable.initialize(5);
+		State s = graph();
+
+		for(int threshold = 0; threshold <= 1; threshold++)
+		{
+			s.setJoinThreshold(threshold);
+
+			// -- One tree used again and again, under every unifier in turn and
+			// -- then under the first one again.
+			Precondition reused = tree(unifier(0));
+
+			for(int u = 0; u <= 12; u++)
+			{
+				Precondition fresh = tree(unifier(u % 12));
+				fresh.reset();
+				String expected = rest(fresh);
+
+				reused.setUnifier(unifier(u % 12));
+				reused.reset();
+				assertEquals(expected, rest(reused));
+			}
+		}
+
+		// -- A hash join keyed by ?y, with ?u bound by the unifier.
+		boolean[] vars = { false, false, true, false, false };
+		PreconditionHashJoin join = new PreconditionHashJoin(edge(0, 2,
+		  unifier(0)), vars);
+
+		for(int u = 0; u < 12; u++)
+		{
+			join.setUnifier(unifier(u));
+
+			for(int y = 0; y < 12; y++)
+			{
+				Term[] binding = { null, null, new TermNumber(y), null, null };
+				assertEquals(satisfiers(edge(0, 2, unifier(u)), binding),
+				  satisfiers(join, binding));
+			}
+		}
+	}
+}
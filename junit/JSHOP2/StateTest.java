@@ -0,0 +1,451 @@
+package JSHOP2;
+
+import junit.framework.TestCase;
+
+public class StateTest extends TestCase
+{
+	// -- (:- (to ?x) (from ?x)), counting how many times it is used.
+	private static class Counting extends Axiom
+	{
+		private int calls;
+		private int from;
+
+		public Counting(int to, int from, int[] dependencies)
+		{
+			super(new Predicate(to, 1, new TermList(TermVariable.getVariable(0),
+			  TermList.NIL)), 1, dependencies);
+
+			this.from = from;
+		}
+
+		public Precondition getIterator(Term[] unifier, int which)
+		{
+			calls++;
+
+			Precondition p = (new PreconditionAtomic(new Predicate(from, 1,
+			  new TermList(TermVariable.getVariable(0), TermList.NIL)), unifier))
+			  .setComparator(null);
+			p.reset();
+
+			return p;
+		}
+
+		public String getLabel(int which)
+		{
+			return "Counting";
+		}
+	}
+
+	private Predicate a;
+	private Predicate b;
+	private Predicate c;
+	private Predicate x;
+
+	private State s;
+
+	public void setUp()
+	{
+		TermConstant.initialize(3);
+		TermVariable.initialize(1);
+
+		a = new Predicate(1, 0, new TermList(TermConstant.getConstant(0), TermList.NIL));
+		b = new Predicate(1, 0, new TermList(TermConstant.getConstant(1), TermList.NIL));
+		c = new Predicate(1, 0, new TermList(TermConstant.getConstant(2), TermList.NIL));
+		x = new Predicate(1, 1, new TermList(TermVariable.getVariable(0), TermList.NIL));
+
+		s = new State(2, new Axiom[2][0]);
+		s.add(a);
+		s.add(b);
+		s.add(c);
+	}
+
+	private void assertOrder(Predicate[] expected)
+	{
+		MyIterator me = s.iterator(x.getHead());
+
+		for(int i = 0; i < expected.length; i++)
+		{
+			Term[] binding = s.nextBinding(x, me);
+			assertNotNull(binding);
+			assertTrue(expected[i].equals(new TermList(binding[0], TermList.NIL)));
+		}
+
+		assertNull(s.nextBinding(x, me));
+	}
+
+	public void testAdd()
+	{
+		assertFalse(s.add(new Predicate(1, 0, new TermList(TermConstant.getConstant(1), TermList.NIL))));
+		assertTrue(s.add(new Predicate(0, 0, new TermList(TermConstant.getConstant(1), TermList.NIL))));
+		assertOrder(new Predicate[] { a, b, c });
+	}
+
+	public void testClone()
+	{
+		s.addProtection(a);
+		s.del(a);
+		s.add(a);
+
+		State original = s;
+		s = (State) original.clone();
+		original.del(b);
+		original.delProtection(a);
+
+		assertOrder(new Predicate[] { b, c, a });
+		assertTrue(s.isProtected(a));
+	}
+
+	public void testDel()
+	{
+		assertTrue(s.del(b));
+		assertFalse(s.del(b));
+		assertOrder(new Predicate[] { a, c });
+		assertTrue(s.add(b));
+		assertOrder(new Predicate[] { a, c, b });
+	}
+
+	public void testUndo()
+	{
+		int mark = s.mark();
+
+		assertTrue(s.del(b));
+		assertTrue(s.del(a));
+		assertTrue(s.add(a));
+		assertOrder(new Predicate[] { c, a });
+
+		s.rollback(mark);
+		assertOrder(new Predicate[] { a, b, c });
+	}
+
+	public void testIterationSurvivesDeletion()
+	{
+		MyIterator me = s.iterator(x.getHead());
+
+		assertNotNull(s.nextBinding(x, me));
+		s.del(a);
+		s.del(b);
+
+		Term[] binding = s.nextBinding(x, me);
+		assertNotNull(binding);
+		assertTrue(c.equals(new TermList(binding[0], TermList.NIL)));
+		assertNull(s.nextBinding(x, me));
+	}
+
+	private Predicate pair(int first, int second)
+	{
+		return new Predicate(0, 0, new TermList(TermConstant.getConstant(first),
+		  new TermList(TermConstant.getConstant(second), TermList.NIL)));
+	}
+
+	public void testArgumentIndex()
+	{
+		s.setIndexThreshold(1);
+		s.add(pair(0, 1));
+		s.add(pair(1, 1));
+		s.add(pair(2, 0));
+		s.add(pair(2, 1));
+
+		Predicate q = new Predicate(0, 1, new TermList(TermVariable.getVariable(0),
+		  new TermList(TermConstant.getConstant(1), TermList.NIL)));
+
+		int mark = s.mark();
+		s.del(pair(1, 1));
+
+		MyIterator me = s.iterator(0);
+		assertEquals(TermConstant.getConstant(0), s.nextBinding(q, me)[0]);
+		assertEquals(TermConstant.getConstant(2), s.nextBinding(q, me)[0]);
+		assertNull(s.nextBinding(q, me));
+
+		s.rollback(mark);
+
+		me = s.iterator(0);
+		assertEquals(TermConstant.getConstant(0), s.nextBinding(q, me)[0]);
+		assertEquals(TermConstant.getConstant(1), s.nextBinding(q, me)[0]);
+		assertEquals(TermConstant.getConstant(2), s.nextBinding(q, me)[0]);
+		assertNull(s.nextBinding(q, me));
+
+		Predicate none = new Predicate(0, 1, new TermList(TermVariable.getVariable(0),
+		  new TermList(TermConstant.getConstant(2), TermList.NIL)));
+		assertNull(s.nextBinding(none, s.iterator(0)));
+	}
+
+	public void testCompactStorage()
+	{
+		s.setCompactStorage(true);
+		s.setIndexThreshold(1);
+		s.add(pair(0, 1));
+		s.add(pair(2, 1));
+		assertFalse(s.add(pair(0, 1)));
+
+		Predicate q = new Predicate(0, 1, new TermList(TermVariable.getVariable(0),
+		  new TermList(TermConstant.getConstant(1), TermList.NIL)));
+
+		MyIterator me = s.iterator(0);
+		assertEquals(TermConstant.getConstant(0), s.nextBinding(q, me)[0]);
+		assertEquals(TermConstant.getConstant(2), s.nextBinding(q, me)[0]);
+		assertNull(s.nextBinding(q, me));
+
+		int mark = s.mark();
+		assertTrue(s.del(pair(0, 1)));
+		assertFalse(s.del(pair(0, 1)));
+		assertTrue(s.entails(new LTLAtom(pair(2, 1))));
+		s.rollback(mark);
+		assertTrue(s.entails(new LTLAtom(pair(0, 1))));
+	}
+
+	public void testCompactStorageLater()
+	{
+		s.add(pair(0, 1));
+		s.add(pair(2, 1));
+		int mark = s.mark();
+		assertTrue(s.del(pair(0, 1)));
+
+		// -- The atoms already in the state are converted when the flag is set.
+		s.setCompactStorage(true);
+
+		Predicate q = new Predicate(0, 1, new TermList(TermVariable.getVariable(0),
+		  new TermList(TermConstant.getConstant(1), TermList.NIL)));
+
+		MyIterator me = s.iterator(0);
+		assertEquals(TermConstant.getConstant(2), s.nextBinding(q, me)[0]);
+		assertNull(s.nextBinding(q, me));
+
+		// -- The atom deleted before is put back the way it was stored.
+		s.rollback(mark);
+		assertTrue(s.entails(new LTLAtom(pair(0, 1))));
+		assertFalse(s.add(pair(2, 1)));
+
+		s.setCompactStorage(false);
+		assertTrue(s.entails(new LTLAtom(pair(0, 1))));
+		assertTrue(s.entails(new LTLAtom(pair(2, 1))));
+
+		AtomSet set = new AtomSet();
+		set.add(pair(0, 1).getParam());
+		assertNull(set.next(null).row);
+		set.setCompact(true);
+		assertNotNull(set.next(null).row);
+		assertTrue(set.contains(pair(0, 1).getParam()));
+		set.setCompact(false);
+		assertNull(set.next(null).row);
+		assertTrue(set.contains(pair(0, 1).getParam()));
+	}
+
+	public void testRollbackProtections()
+	{
+		int mark = s.mark();
+
+		s.addProtection(a);
+		assertTrue(s.delProtection(a));
+		assertFalse(s.isProtected(a));
+		s.addProtection(b);
+		assertTrue(s.isProtected(b));
+
+		s.rollback(mark);
+		assertFalse(s.isProtected(a));
+		assertFalse(s.isProtected(b));
+	}
+
+	public void testCountedProtections()
+	{
+		s.addProtection(a);
+		s.addProtection(a);
+
+		for(int i = 0; i < 9; i++)
+			s.addProtection(pair(i % 3, i / 3));
+
+		State copy = (State) s.clone();
+		assertEquals(s.fingerprint(), copy.fingerprint());
+
+		int mark = s.mark();
+		assertTrue(s.delProtection(a));
+		assertTrue(s.isProtected(a));
+		assertTrue(s.delProtection(a));
+		assertFalse(s.isProtected(a));
+		assertFalse(s.delProtection(a));
+		assertTrue(s.delProtection(pair(1, 2)));
+		assertFalse(s.isProtected(pair(1, 2)));
+		assertTrue(s.isProtected(pair(2, 2)));
+
+		s.rollback(mark);
+		assertTrue(s.isProtected(pair(1, 2)));
+		assertEquals(copy.fingerprint(), s.fingerprint());
+
+		assertTrue(copy.delProtection(a));
+		assertTrue(copy.isProtected(a));
+		assertFalse(copy.isProtected(b));
+	}
+
+	public void testRepeatedVariable()
+	{
+		s.add(pair(0, 1));
+		s.add(pair(2, 2));
+		s.add(pair(1, 0));
+		s.add(pair(0, 0));
+
+		Predicate q = new Predicate(0, 1, new TermList(TermVariable.getVariable(0),
+		  new TermList(TermVariable.getVariable(0), TermList.NIL)));
+
+		MyIterator me = s.iterator(0);
+		Term[] first = s.nextBinding(q, me);
+		assertEquals(TermConstant.getConstant(2), first[0]);
+		assertEquals(TermConstant.getConstant(0), s.nextBinding(q, me)[0]);
+		assertNull(s.nextBinding(q, me));
+		assertEquals(TermConstant.getConstant(2), first[0]);
+
+		s = new State(2, new Axiom[2][0]);
+		s.setCompactStorage(true);
+		s.add(pair(0, 1));
+		s.add(pair(1, 1));
+
+		me = s.iterator(0);
+		assertEquals(TermConstant.getConstant(1), s.nextBinding(q, me)[0]);
+		assertNull(s.nextBinding(q, me));
+	}
+
+	public void testEstimate()
+	{
+		s.setIndexThreshold(1);
+		s.add(pair(0, 1));
+		s.add(pair(1, 1));
+		s.add(pair(2, 0));
+		s.add(pair(2, 1));
+
+		Predicate q = new Predicate(0, 1, new TermList(TermVariable.getVariable(0),
+		  new TermList(TermConstant.getConstant(1), TermList.NIL)));
+
+		assertEquals(3, s.estimate(q, new boolean[] { false }));
+		assertEquals(1, s.estimate(q, new boolean[] { true }));
+		assertEquals(3, s.estimate(x, new boolean[] { false }));
+	}
+
+	public void testFingerprint()
+	{
+		long h = s.fingerprint();
+		int mark = s.mark();
+
+		s.del(a);
+		assertTrue(h != s.fingerprint());
+		s.add(a);
+		assertEquals(h, s.fingerprint());
+
+		s.addProtection(b);
+		assertTrue(h != s.fingerprint());
+		s.rollback(mark);
+		assertEquals(h, s.fingerprint());
+
+		State compact = new State(2, new Axiom[2][0]);
+		compact.setCompactStorage(true);
+		compact.add(c);
+		compact.add(b);
+		compact.add(a);
+		assertEquals(h, compact.fingerprint());
+
+		State copy = (State) s.clone();
+		copy.del(c);
+		copy.add(c);
+		assertEquals(h, copy.fingerprint());
+	}
+
+	public void testEntails()
+	{
+		assertTrue(s.entails(new LTLAtom(b)));
+		s.del(b);
+		assertFalse(s.entails(new LTLAtom(b)));
+	}
+
+	private Predicate one(int head, int constant)
+	{
+		return new Predicate(head, 0, new TermList(TermConstant
+		  .getConstant(constant), TermList.NIL));
+	}
+
+	// -- The constants that satisfy (head ?x), e.g. "ab".
+	private static String proved(State st, int head)
+	{
+		Predicate q = new Predicate(head, 1, new TermList(TermVariable
+		  .getVariable(0), TermList.NIL));
+		MyIterator me = st.iterator(head);
+		StringBuffer retVal = new StringBuffer();
+		Term[] binding;
+
+		while((binding = st.nextBinding(q, me)) != null)
+			retVal.append((char) ('a' + ((TermConstant) binding[0]).getIndex()));
+
+		return retVal.toString();
+	}
+
+	public void testAxiomTables()
+	{
+		// -- The heads are p, q, (r ?x) :- (p ?x), (s ?x) :- (q ?x) with the
+		// -- dependencies not known, and (t ?x) :- (r ?x).
+		Counting r = new Counting(2, 0, new int[] { 0 });
+		Counting unknown = new Counting(3, 1, null);
+		Counting t = new Counting(4, 2, new int[] { 2 });
+		Axiom[][] axioms = { {}, {}, { r }, { unknown }, { t } };
+
+		State st = new State(5, axioms);
+		new Planner(null, st).setCurrent();
+
+		// -- Off by default, so the axioms are used every time.
+		st.add(one(0, 0));
+		assertEquals("a", proved(st, 2));
+		assertEquals("a", proved(st, 2));
+		assertEquals(2, r.calls);
+
+		st.setAxiomTabling(true);
+		r.calls = 0;
+		assertEquals("a", proved(st, 2));
+		assertEquals("a", proved(st, 4));
+		assertEquals("a", proved(st, 2));
+		assertEquals("a", proved(st, 4));
+		assertEquals(1, r.calls);
+		assertEquals(1, t.calls);
+
+		// -- Changing an unrelated head keeps the tables.
+		st.add(one(1, 1));
+		assertEquals("a", proved(st, 2));
+		assertEquals("a", proved(st, 4));
+		assertEquals(1, r.calls);
+		assertEquals(1, t.calls);
+
+		// -- Changing a head the axiom depends on throws its table away, and the
+		// -- tables of the axioms that depend on it.
+		int mark = st.mark();
+		st.add(one(0, 2));
+		assertEquals("ac", proved(st, 2));
+		assertEquals("ac", proved(st, 4));
+		assertEquals(2, r.calls);
+		assertEquals(2, t.calls);
+
+		st.rollback(mark);
+		assertEquals("a", proved(st, 2));
+		assertEquals("a", proved(st, 4));
+		assertEquals(3, r.calls);
+		assertEquals(3, t.calls);
+
+		st.del(one(0, 0));
+		assertEquals("", proved(st, 2));
+		assertEquals("", proved(st, 4));
+		assertEquals(4, r.calls);
+		assertEquals(4, t.calls);
+
+		// -- An axiom the dependencies of which are not known depends on
+		// -- everything.
+		assertEquals("b", proved(st, 3));
+		assertEquals("b", proved(st, 3));
+		assertEquals(1, unknown.calls);
+
+		st.add(one(0, 1));
+		assertEquals("b", proved(st, 3));
+		assertEquals(2, unknown.calls);
+
+		mark = st.mark();
+		st.del(one(0, 1));
+		assertEquals("b", proved(st, 3));
+		assertEquals(3, unknown.calls);
+
+		st.rollback(mark);
+		assertEquals("b", proved(st, 3));
+		assertEquals(4, unknown.calls);
+	}
+}
@@ -0,0 +1,85 @@
+package JSHOP2;
+
+import junit.framework.TestCase;
+
+public class TaskNetworkTest extends TestCase
+{
+	private TaskList a;
+	private TaskList b;
+	private TaskList x;
+
+	public void setUp()
+	{
+		TermConstant.initialize(2);
+		TermVariable.initialize(1);
+
+		a = atom(0, TermConstant.getConstant(0));
+		b = atom(0, TermConstant.getConstant(1));
+		x = atom(1, TermVariable.getVariable(0));
+	}
+
+	private TaskList atom(int head, Term t)
+	{
+		return new TaskList(new TaskAtom(new Predicate(head, 1, new TermList(t, TermList.NIL)), false, true));
+	}
+
+	private TaskList list(boolean ordered, TaskList[] subtasks)
+	{
+		TaskList tl = new TaskList(subtasks.length, ordered);
+		System.arraycopy(subtasks, 0, tl.subtasks, 0, subtasks.length);
+		return tl;
+	}
+
+	public void testOf()
+	{
+		TaskNetwork t = TaskNetwork.of(list(true, new TaskList[] { TaskList.empty, a, list(false, new TaskList[0]) }));
+		assertEquals(TaskNetwork.of(a), t);
+		assertEquals(1, t.size());
+
+		assertSame(TaskNetwork.empty, TaskNetwork.of(list(true, new TaskList[] { TaskList.empty })));
+		assertEquals(0, TaskNetwork.empty.fingerprint());
+
+		TaskNetwork ab = TaskNetwork.of(list(false, new TaskList[] { a, b }));
+		TaskNetwork ba = TaskNetwork.of(list(false, new TaskList[] { b, a }));
+		assertEquals(ab.fingerprint(), ba.fingerprint());
+		assertFalse(ab.equals(ba));
+		assertTrue(ab.fingerprint() != TaskNetwork.of(list(true, new TaskList[] { a, b })).fingerprint());
+	}
+
+	public void testReplace()
+	{
+		TaskNetwork t = TaskNetwork.of(list(true, new TaskList[] { list(false, new TaskList[] { a, b }), x }));
+		long h = t.fingerprint();
+		Frontier f = new Frontier();
+
+		t.getFirst(null, f);
+		assertEquals(2, f.size);
+		f.next();
+		assertEquals(b.getTask(), f.next().getTask());
+
+		TaskNetwork u = f.replace(t, TaskNetwork.empty);
+		assertEquals(2, u.size());
+		assertEquals(TaskNetwork.of(a), u.getSubtask(0));
+		assertSame(t.getSubtask(1), u.getSubtask(1));
+
+		assertEquals(3, t.size());
+		assertEquals(h, t.fingerprint());
+
+		TaskNetwork v = f.replace(t, TaskNetwork.of(list(true, new TaskList[] { x, b })));
+		int[] position = f.position();
+		v.getFirst(position, f);
+		assertEquals(1, f.size);
+		assertEquals(x.getTask(), f.next().getTask());
+		assertEquals(4, v.size());
+	}
+
+	public void testBind()
+	{
+		TaskNetwork t = TaskNetwork.of(list(true, new TaskList[] { a, x }));
+		TaskNetwork bound = t.bind(new Term[] { TermConstant.getConstant(1) });
+
+		assertSame(t.getSubtask(0), bound.getSubtask(0));
+		assertEquals(TaskNetwork.of(list(true, new TaskList[] { a, atom(1, TermConstant.getConstant(1)) })), bound);
+		assertSame(bound, bound.bind(new Term[1]));
+	}
+}
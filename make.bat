@@ -49,7 +49,7 @@ goto :Compile
   java JSHOP2.InternalDomain blocks
   java JSHOP2.InternalDomain -r problem
   javac problem.java
-  java -Xss2048K problem
+  java problem
   del blocks.java
   del blocks.txt
   del problem.java
@@ -0,0 +1,55 @@
+package JSHOP2;
+
+/** Each object of this class represents the atoms in an <code>AtomSet</code>
+ *  that have the same argument at a given position. These atoms are linked
+ *  together, through the per-position links of their entries, in the same
+ *  order they appear in the set itself.
+ *
+ *  @version 1.0.3
+*/
+class ArgBucket
+{
+  /** The next bucket in the same hash chain.
+  */
+  ArgBucket chain;
+
+  /** The first atom in this bucket.
+  */
+  AtomEntry first;
+
+  /** The hash code of the argument shared by the atoms in this bucket.
+  */
+  int hash;
+
+  /** The argument shared by the atoms in this bucket.
+  */
+  Term key;
+
+  /** The last atom in this bucket.
+  */
+  AtomEntry last;
+
+  /** The position of the argument shared by the atoms in this bucket.
+  */
+  int position;
+
+  /** The number of atoms in this bucket.
+  */
+  int size;
+
+  /** To initialize an empty bucket.
+   *
+   *  @param positionIn
+   *          the position of the argument shared by the atoms in this bucket.
+   *  @param keyIn
+   *          the argument shared by the atoms in this bucket.
+   *  @param hashIn
+   *          the hash code of that argument.
+  */
+  ArgBucket(int positionIn, Term keyIn, int hashIn)
+  {
+    position = positionIn;
+    key = keyIn;
+    hash = hashIn;
+  }
+}
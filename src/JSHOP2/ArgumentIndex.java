@@ -0,0 +1,97 @@
+package JSHOP2;
+
+/** This class maps the arguments at a given position of the atoms in an
+ *  <code>AtomSet</code> to the buckets of atoms that have those arguments at
+ *  that position. It is used to find the atoms that can possibly unify with a
+ *  predicate some of whose arguments are already bound without looking at all
+ *  the atoms with the same head.
+ *
+ *  @version 1.0.3
+*/
+class ArgumentIndex
+{
+  /** The number of buckets in this index.
+  */
+  private int count;
+
+  /** The position of the arguments this index maps.
+  */
+  private int position;
+
+  /** The hash chains. The length of this array is always a power of two.
+  */
+  private ArgBucket[] table;
+
+  /** To initialize an empty index.
+   *
+   *  @param positionIn
+   *          the position of the arguments this index maps.
+  */
+  ArgumentIndex(int positionIn)
+  {
+    position = positionIn;
+    table = new ArgBucket[8];
+  }
+
+  /** To find the bucket of the atoms with a given argument at the position
+   *  this index maps.
+   *
+   *  @param key
+   *          the argument.
+   *  @param create
+   *          whether or not an empty bucket should be created if there is
+   *          none for the given argument.
+   *  @return
+   *          the bucket, or <code>null</code> if there is none and
+   *          <code>create</code> is <code>false</code>.
+  */
+  ArgBucket get(Term key, boolean create)
+  {
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+
+    for (ArgBucket b = table[hash & (table.length - 1)]; b != null;
+         b = b.chain)
+      if (b.hash == hash && key.equals(b.key))
+        return b;
+
+    if (!create)
+      return null;
+
+    if (++count > table.length - (table.length >> 2))
+    {
+      //-- Double the number of hash chains.
+      ArgBucket[] old = table;
+      table = new ArgBucket[old.length << 1];
+
+      for (int i = 0; i < old.length; i++)
+      {
+        ArgBucket next;
+
+        for (ArgBucket b = old[i]; b != null; b = next)
+        {
+          next = b.chain;
+          b.chain = table[b.hash & (table.length - 1)];
+          table[b.hash & (table.length - 1)] = b;
+        }
+      }
+    }
+
+    ArgBucket b = new ArgBucket(position, key, hash);
+    b.chain = table[hash & (table.length - 1)];
+    table[hash & (table.length - 1)] = b;
+
+    return b;
+  }
+
+  /** To get the number of buckets in this index, i.e., the number of
+   *  different arguments that have been seen at the position it maps.
+   *
+   *  @return
+   *          the number of buckets.
+  */
+  int size()
+  {
+    return count;
+  }
+}
@@ -0,0 +1,193 @@
+package JSHOP2;
+
+/** Each atom stored in an <code>AtomSet</code> is wrapped in an object of this
+ *  class. An entry is linked both into the insertion-ordered list of its set
+ *  and into one of the hash chains of that set. When an entry is removed from
+ *  the set, its own links are left untouched, so that in case of a backtrack
+ *  it can be put back exactly where it was before.
+ *
+ *  @version 1.0.3
+*/
+class AtomEntry
+{
+  /** The next entries with the same argument at each position, when the set
+   *  is indexed by argument positions.
+  */
+  AtomEntry[] argNext;
+
+  /** The previous entries with the same argument at each position, when the
+   *  set is indexed by argument positions.
+  */
+  AtomEntry[] argPrev;
+
+  /** The buckets this entry belongs to at each position, when the set is
+   *  indexed by argument positions.
+  */
+  ArgBucket[] buckets;
+
+  /** The next entry in the same hash chain.
+  */
+  AtomEntry chain;
+
+  /** The 64-bit hash code of the atom, head included, as it is counted in
+   *  the hash code of the state of the world.
+  */
+  long fingerprint;
+
+  /** The generation of the argument position indexes this entry was linked
+   *  into.
+  */
+  int generation;
+
+  /** The hash code of the argument list of the atom, computed only once.
+  */
+  int hash;
+
+  /** Whether or not this entry is currently in its set.
+  */
+  boolean linked;
+
+  /** The next entry in the insertion order.
+  */
+  AtomEntry next;
+
+  /** The set this entry belongs to.
+  */
+  AtomSet owner;
+
+  /** The argument list of the atom, or <code>null</code> if the atom is
+   *  stored as a row of constant symbols.
+  */
+  Term param;
+
+  /** The previous entry in the insertion order.
+  */
+  AtomEntry prev;
+
+  /** The indexes of the constant symbols that are the arguments of the atom,
+   *  if the atom is stored in this compact form, <code>null</code> otherwise.
+  */
+  int[] row;
+
+  /** To initialize this entry.
+   *
+   *  @param ownerIn
+   *          the set this entry belongs to.
+   *  @param paramIn
+   *          the argument list of the atom.
+   *  @param hashIn
+   *          the hash code of the argument list of the atom.
+  */
+  AtomEntry(AtomSet ownerIn, Term paramIn, int hashIn)
+  {
+    owner = ownerIn;
+    param = paramIn;
+    hash = hashIn;
+  }
+
+  /** To get the argument at a given position of the atom.
+   *
+   *  @param k
+   *          the position.
+   *  @return
+   *          the argument.
+  */
+  Term getArg(int k)
+  {
+    if (row != null)
+      return TermConstant.getConstant(row[k]);
+
+    Term t = param;
+
+    for (; k > 0; k--)
+      t = ((TermList)t).getList().getTail();
+
+    return ((TermList)t).getList().getHead();
+  }
+
+  /** To get the number of arguments of the atom.
+   *
+   *  @return
+   *          the number of arguments of the atom.
+  */
+  int getArgCount()
+  {
+    if (row != null)
+      return row.length;
+
+    int n = 0;
+    Term t = param;
+
+    while (t instanceof TermList && !t.isNil())
+    {
+      n++;
+      t = ((TermList)t).getList().getTail();
+    }
+
+    return n;
+  }
+
+  /** To get the argument list of the atom. If the atom is stored as a row of
+   *  constant symbols, the (shared) argument list is made on the fly.
+   *
+   *  @return
+   *          the argument list of the atom.
+  */
+  Term getParam()
+  {
+    if (row != null)
+      return TermTable.intern(row);
+
+    return param;
+  }
+
+  /** Whether or not the atom has a given argument list.
+   *
+   *  @param t
+   *          the argument list.
+   *  @return
+   *          <code>true</code> if the atom has the given argument list,
+   *          <code>false</code> otherwise.
+  */
+  boolean matches(Term t)
+  {
+    if (row == null)
+      return t.equals(param);
+
+    for (int k = 0; k < row.length; k++)
+    {
+      if (!(t instanceof TermList) || t.isNil())
+        return false;
+
+      List l = ((TermList)t).getList();
+
+      if (!(l.getHead() instanceof TermConstant) ||
+          ((TermConstant)l.getHead()).getIndex() != row[k])
+        return false;
+
+      t = l.getTail();
+    }
+
+    return t.isNil();
+  }
+
+  /** To compute the 64-bit hash code of the argument list of the atom, which
+   *  is the same whether or not the atom is stored as a row of constant
+   *  symbols.
+   *
+   *  @return
+   *          the hash code.
+  */
+  long paramFingerprint()
+  {
+    if (row == null)
+      return Term.fingerprint(param);
+
+    long h = Term.fingerprint(TermList.NIL);
+
+    for (int k = row.length - 1; k >= 0; k--)
+      h = Term.fingerprintList(Term.fingerprintConstant(row[k]), h);
+
+    return h;
+  }
+}
@@ -0,0 +1,663 @@
+package JSHOP2;
+
+/** This class represents the atoms in the current state of the world that
+ *  share the same head. Membership tests, insertions and deletions are done
+ *  through a hash table keyed by the argument lists of the atoms, while a
+ *  doubly linked list keeps the atoms in the order they were added, so that
+ *  the satisfiers of a predicate are always found in the same order.
+ *
+ *  @version 1.0.3
+*/
+public class AtomSet
+{
+  /** Whether or not the atoms whose arguments are all constant symbols are
+   *  stored as rows of constant symbol indexes.
+  */
+  private boolean compact;
+
+  /** The bucket returned when no atom can possibly match a query.
+  */
+  private static final ArgBucket EMPTY = new ArgBucket(0, null, 0);
+
+  /** The generation of the argument position indexes. It is increased every
+   *  time the indexes are built, so that the entries linked into older
+   *  indexes can be told apart.
+  */
+  private int generation;
+
+  /** The head of the atoms in this set, i.e., the index of the constant
+   *  symbol that comes first in them.
+  */
+  int head;
+
+  /** The sentinel of the insertion-ordered circular list of entries. It does
+   *  not represent any atom itself.
+  */
+  private AtomEntry list;
+
+  /** The argument position indexes of this set, one per position, or
+   *  <code>null</code> if this set is not indexed by argument positions.
+  */
+  private ArgumentIndex[] positions;
+
+  /** The number of atoms in this set.
+  */
+  private int size;
+
+  /** The hash chains. The length of this array is always a power of two.
+  */
+  private AtomEntry[] table;
+
+  /** To initialize an empty set of atoms.
+  */
+  public AtomSet()
+  {
+    list = new AtomEntry(this, null, 0);
+    list.next = list;
+    list.prev = list;
+
+    table = new AtomEntry[8];
+  }
+
+  /** To add an atom to the end of this set.
+   *
+   *  @param param
+   *          the argument list of the atom to be added.
+   *  @return
+   *          the entry of the newly added atom, or <code>null</code> if the
+   *          atom was already in this set.
+  */
+  public AtomEntry add(Term param)
+  {
+    int hash = hash(param);
+
+    if (find(param, hash) != null)
+      return null;
+
+    AtomEntry e;
+    int[] row;
+
+    if (compact && (row = pack(param)) != null)
+    {
+      e = new AtomEntry(this, null, hash);
+      e.row = row;
+    }
+    else
+      e = new AtomEntry(this, param, hash);
+
+    //-- Link the new entry right before the sentinel, i.e., at the end of the
+    //-- insertion order.
+    e.prev = list.prev;
+    e.next = list;
+
+    link(e);
+
+    //-- Append the new entry to the end of its buckets as well.
+    if (positions != null)
+      index(e);
+
+    return e;
+  }
+
+  /** To build the argument position indexes of this set from scratch.
+  */
+  private void buildIndex()
+  {
+    generation++;
+    positions = new ArgumentIndex[0];
+
+    for (AtomEntry e = list.next; e != list; e = e.next)
+      index(e);
+  }
+
+  /** To remove all the atoms from this set.
+  */
+  public void clear()
+  {
+    positions = null;
+
+    for (AtomEntry e = list.next; e != list; e = e.next)
+      e.linked = false;
+
+    list.next = list;
+    list.prev = list;
+
+    for (int i = 0; i < table.length; i++)
+      table[i] = null;
+
+    size = 0;
+  }
+
+  /** Whether or not an atom is in this set.
+   *
+   *  @param param
+   *          the argument list of the atom.
+   *  @return
+   *          <code>true</code> if the atom is in this set, <code>false</code>
+   *          otherwise.
+  */
+  public boolean contains(Term param)
+  {
+    return (find(param, hash(param)) != null);
+  }
+
+  /** To make a copy of this set that has the same atoms in the same order,
+   *  and that can be changed independently of this set.
+   *
+   *  @return
+   *          the copy.
+  */
+  public AtomSet copy()
+  {
+    AtomSet retVal = new AtomSet();
+    retVal.compact = compact;
+    retVal.head = head;
+
+    for (AtomEntry e = next(null); e != null; e = next(e))
+      retVal.add(e.getParam());
+
+    return retVal;
+  }
+
+  /** To estimate the number of atoms in this set that unify with a given
+   *  predicate, once some of its variables are bound to arguments that are
+   *  not known yet. The arguments that are already bound narrow the atoms
+   *  down as they do when the atoms are looked at. Each argument that is one
+   *  of those variables is assumed to narrow them down by the number of
+   *  different arguments at its position, if the atoms are indexed.
+   *
+   *  @param param
+   *          the argument list of the predicate.
+   *  @param bound
+   *          which variables are to be bound.
+   *  @param threshold
+   *          the minimum number of atoms in this set for the indexes to be
+   *          used, as in <code>select</code>.
+   *  @return
+   *          the estimate.
+  */
+  int estimate(Term param, boolean[] bound, int threshold)
+  {
+    ArgBucket b = select(param, threshold);
+    int n = (b == null) ? size : b.size;
+
+    if (positions == null)
+      return n;
+
+    Term t = param;
+
+    for (int k = 0; t instanceof TermList && !t.isNil(); k++)
+    {
+      List l = ((TermList)t).getList();
+
+      if (l.getHead() instanceof TermVariable && k < positions.length)
+      {
+        int d = positions[k].size();
+
+        if (d > 1 && bound[((TermVariable)l.getHead()).getIndex()])
+          n = (n + d - 1) / d;
+      }
+
+      t = l.getTail();
+    }
+
+    return n;
+  }
+
+  /** To find the entry of an atom in this set.
+   *
+   *  @param param
+   *          the argument list of the atom.
+   *  @param hash
+   *          the hash code of the argument list.
+   *  @return
+   *          the entry of the atom, or <code>null</code> if the atom is not in
+   *          this set.
+  */
+  private AtomEntry find(Term param, int hash)
+  {
+    for (AtomEntry e = table[hash & (table.length - 1)]; e != null;
+         e = e.chain)
+      if (e.hash == hash && e.matches(param))
+        return e;
+
+    return null;
+  }
+
+  /** To calculate the hash code of the argument list of an atom. The high
+   *  bits of the hash code are mixed into the low ones, since only the low
+   *  bits are used to choose a hash chain.
+   *
+   *  @param param
+   *          the argument list of the atom.
+   *  @return
+   *          the hash code.
+  */
+  private static int hash(Term param)
+  {
+    int h = param.hashCode();
+
+    return h ^ (h >>> 16);
+  }
+
+  /** To link an entry, that is not in any bucket yet, to the end of its
+   *  buckets at every argument position.
+   *
+   *  @param e
+   *          the entry.
+  */
+  private void index(AtomEntry e)
+  {
+    int n = e.getArgCount();
+
+    e.argNext = new AtomEntry[n];
+    e.argPrev = new AtomEntry[n];
+    e.buckets = new ArgBucket[n];
+    e.generation = generation;
+
+    if (positions.length < n)
+    {
+      ArgumentIndex[] old = positions;
+      positions = new ArgumentIndex[n];
+      System.arraycopy(old, 0, positions, 0, old.length);
+
+      for (int k = old.length; k < n; k++)
+        positions[k] = new ArgumentIndex(k);
+    }
+
+    for (int k = 0; k < n; k++)
+    {
+      e.buckets[k] = positions[k].get(e.getArg(k), true);
+      e.argPrev[k] = e.buckets[k].last;
+      relink(e, k);
+    }
+  }
+
+  /** Whether or not this set is empty.
+   *
+   *  @return
+   *          <code>true</code> if there are no atoms in this set,
+   *          <code>false</code> otherwise.
+  */
+  public boolean isEmpty()
+  {
+    return (size == 0);
+  }
+
+  /** To get the entry that comes after a given entry in the insertion order.
+   *  If the given entry has been removed from this set in the meantime, the
+   *  entries that were after it are still found correctly.
+   *
+   *  @param e
+   *          the given entry, or <code>null</code> to get the first entry.
+   *  @return
+   *          the next entry, or <code>null</code> if there are no more entries.
+  */
+  public AtomEntry next(AtomEntry e)
+  {
+    if (e == null)
+      e = list;
+
+    //-- Skip the entries that have been removed from this set.
+    do
+      e = e.next;
+    while (e != list && !e.linked);
+
+    if (e == list)
+      return null;
+
+    return e;
+  }
+
+  /** To get the entry that comes after a given entry in a bucket, or in the
+   *  insertion order if no bucket is given.
+   *
+   *  @param e
+   *          the given entry, or <code>null</code> to get the first entry.
+   *  @param b
+   *          the bucket, or <code>null</code> to look at all the atoms in this
+   *          set.
+   *  @return
+   *          the next entry, or <code>null</code> if there are no more entries.
+  */
+  AtomEntry next(AtomEntry e, ArgBucket b)
+  {
+    if (b == null)
+      return next(e);
+
+    int k = b.position;
+
+    if (e == null)
+      e = b.first;
+    else
+      e = e.argNext[k];
+
+    //-- Skip the entries that have been removed from this set.
+    while (e != null && !e.linked)
+      e = e.argNext[k];
+
+    return e;
+  }
+
+  /** To link an entry into the insertion order and into its hash chain.
+   *
+   *  @param e
+   *          the entry.
+  */
+  private void link(AtomEntry e)
+  {
+    //-- Grow the hash table first, so that the entry is put into its hash
+    //-- chain only once.
+    if (++size > table.length - (table.length >> 2))
+      resize();
+
+    e.prev.next = e;
+    e.next.prev = e;
+
+    int bucket = e.hash & (table.length - 1);
+    e.chain = table[bucket];
+    table[bucket] = e;
+
+    e.linked = true;
+  }
+
+  /** To link an entry back into its bucket at a given argument position.
+   *
+   *  @param e
+   *          the entry.
+   *  @param k
+   *          the argument position.
+  */
+  private static void relink(AtomEntry e, int k)
+  {
+    ArgBucket b = e.buckets[k];
+
+    if (e.argPrev[k] == null)
+      b.first = e;
+    else
+      e.argPrev[k].argNext[k] = e;
+
+    if (e.argNext[k] == null)
+      b.last = e;
+    else
+      e.argNext[k].argPrev[k] = e;
+
+    b.size++;
+  }
+
+  /** To get the indexes of the constant symbols that are the arguments of an
+   *  atom.
+   *
+   *  @param param
+   *          the argument list of the atom.
+   *  @return
+   *          the indexes of the arguments, or <code>null</code> if not all the
+   *          arguments are constant symbols.
+  */
+  private static int[] pack(Term param)
+  {
+    int n = 0;
+    Term t = param;
+
+    for (; t instanceof TermList && !t.isNil(); n++)
+    {
+      Term arg = ((TermList)t).getList().getHead();
+
+      if (!(arg instanceof TermConstant))
+        return null;
+
+      t = ((TermList)t).getList().getTail();
+    }
+
+    //-- The argument list is not a proper list.
+    if (!t.isNil())
+      return null;
+
+    int[] row = new int[n];
+    t = param;
+
+    for (int k = 0; k < n; k++)
+    {
+      row[k] = ((TermConstant)((TermList)t).getList().getHead()).getIndex();
+      t = ((TermList)t).getList().getTail();
+    }
+
+    return row;
+  }
+
+  /** To remove an atom from this set.
+   *
+   *  @param param
+   *          the argument list of the atom to be removed.
+   *  @return
+   *          the entry of the removed atom, which can later be used to put the
+   *          atom back exactly where it was, or <code>null</code> if the atom
+   *          was not in this set.
+  */
+  public AtomEntry remove(Term param)
+  {
+    int hash = hash(param);
+    int bucket = hash & (table.length - 1);
+
+    AtomEntry prevInChain = null;
+
+    for (AtomEntry e = table[bucket]; e != null; e = e.chain)
+    {
+      if (e.hash == hash && e.matches(param))
+      {
+        unlink(e, prevInChain);
+
+        return e;
+      }
+
+      prevInChain = e;
+    }
+
+    return null;
+  }
+
+  /** To remove a given entry from this set. This is used in case of a
+   *  backtrack to retract an atom that was added.
+   *
+   *  @param e
+   *          the entry to be removed.
+  */
+  public void remove(AtomEntry e)
+  {
+    AtomEntry prevInChain = null;
+
+    for (AtomEntry c = table[e.hash & (table.length - 1)]; c != e;
+         c = c.chain)
+      prevInChain = c;
+
+    unlink(e, prevInChain);
+  }
+
+  /** To put a removed entry back exactly where it was. Since backtracking
+   *  undoes changes in the reverse order they were made in, the neighbors of
+   *  the entry are guaranteed to be the same as they were when it was
+   *  removed.
+   *
+   *  @param e
+   *          the entry to be put back.
+  */
+  public void restore(AtomEntry e)
+  {
+    link(e);
+
+    if (positions != null)
+    {
+      //-- If the entry was removed before the current indexes were built, there
+      //-- is no telling where it belongs in its buckets, so drop the indexes.
+      //-- They will be built again the next time they are needed.
+      if (e.generation != generation)
+        positions = null;
+      else
+        for (int k = 0; k < e.buckets.length; k++)
+          relink(e, k);
+    }
+  }
+
+  /** To choose the bucket that should be looked at to find the atoms that can
+   *  possibly unify with a given predicate, i.e., the smallest bucket among
+   *  those of the arguments of the predicate that are already bound. The
+   *  argument position indexes are built the first time they are needed.
+   *
+   *  @param param
+   *          the argument list of the predicate.
+   *  @param threshold
+   *          the minimum number of atoms in this set for the indexes to be
+   *          used. If it is not positive, the indexes are never used.
+   *  @return
+   *          the bucket to be looked at, or <code>null</code> if all the atoms
+   *          in this set should be looked at.
+  */
+  ArgBucket select(Term param, int threshold)
+  {
+    if (threshold <= 0 || size < threshold || !(param instanceof TermList))
+      return null;
+
+    if (positions == null)
+      buildIndex();
+
+    ArgBucket best = null;
+    Term t = param;
+
+    for (int k = 0; t instanceof TermList && !t.isNil(); k++)
+    {
+      List l = ((TermList)t).getList();
+      Term arg = l.getHead();
+
+      //-- Only the arguments that are already bound can be used.
+      if (arg.isGround() && !(arg instanceof TermCall))
+      {
+        ArgBucket b = null;
+
+        if (k < positions.length)
+          b = positions[k].get(arg, false);
+
+        //-- No atom has this argument at this position, so no atom can unify
+        //-- with the predicate.
+        if (b == null || b.size == 0)
+          return EMPTY;
+
+        if (best == null || b.size < best.size)
+          best = b;
+      }
+
+      t = l.getTail();
+    }
+
+    return best;
+  }
+
+  /** To unlink an entry from this set, leaving its own links alone so that it
+   *  can be restored later.
+   *
+   *  @param e
+   *          the entry.
+   *  @param prevInChain
+   *          the entry that comes before it in its hash chain, or
+   *          <code>null</code> if it is the first one.
+  */
+  private void unlink(AtomEntry e, AtomEntry prevInChain)
+  {
+    //-- Unlink the entry from its hash chain.
+    if (prevInChain == null)
+      table[e.hash & (table.length - 1)] = e.chain;
+    else
+      prevInChain.chain = e.chain;
+
+    //-- Unlink the entry from the insertion order.
+    e.prev.next = e.next;
+    e.next.prev = e.prev;
+
+    if (positions != null)
+      for (int k = 0; k < e.buckets.length; k++)
+        unlink(e, k);
+
+    e.linked = false;
+    size--;
+  }
+
+  /** To unlink an entry from its bucket at a given argument position, leaving
+   *  its own links alone so that it can be linked back later.
+   *
+   *  @param e
+   *          the entry.
+   *  @param k
+   *          the argument position.
+  */
+  private static void unlink(AtomEntry e, int k)
+  {
+    ArgBucket b = e.buckets[k];
+
+    if (e.argPrev[k] == null)
+      b.first = e.argNext[k];
+    else
+      e.argPrev[k].argNext[k] = e.argNext[k];
+
+    if (e.argNext[k] == null)
+      b.last = e.argPrev[k];
+    else
+      e.argNext[k].argPrev[k] = e.argPrev[k];
+
+    b.size--;
+  }
+
+  /** To double the number of hash chains in this set.
+  */
+  private void resize()
+  {
+    table = new AtomEntry[table.length << 1];
+
+    for (AtomEntry e = list.next; e != list; e = e.next)
+    {
+      int bucket = e.hash & (table.length - 1);
+      e.chain = table[bucket];
+      table[bucket] = e;
+    }
+  }
+
+  /** To set whether or not the atoms in this set whose arguments are all
+   *  constant symbols are stored as rows of constant symbol indexes rather
+   *  than as lists of terms. The atoms already in this set are converted as
+   *  well, so this can be set after the initial state of the world has been
+   *  filled in.
+   *
+   *  @param compactIn
+   *          whether or not to store such atoms as rows.
+  */
+  public void setCompact(boolean compactIn)
+  {
+    if (compact == compactIn)
+      return;
+
+    compact = compactIn;
+
+    //-- The entries keep their hash codes and their places in the hash chains
+    //-- and in the argument position indexes, only the way their arguments
+    //-- are stored changes.
+    for (AtomEntry e = list.next; e != list; e = e.next)
+      if (compact)
+      {
+        if (e.row == null && (e.row = pack(e.param)) != null)
+          e.param = null;
+      }
+      else if (e.row != null)
+      {
+        e.param = e.getParam();
+        e.row = null;
+      }
+  }
+
+  /** To get the number of atoms in this set.
+   *
+   *  @return
+   *          the number of atoms in this set.
+  */
+  public int size()
+  {
+    return size;
+  }
+}
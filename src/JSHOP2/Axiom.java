@@ -15,6 +15,11 @@ public abstract class Axiom extends DomainElement
   */
   private int branchSize;
 
+  /** The heads of the predicates the branches of this axiom refer to, or
+   *  <code>null</code> if they are not known.
+  */
+  private int[] dependencies;
+
   /** To initialize the axiom.
    *
    *  @param head
@@ -28,6 +33,23 @@ public abstract class Axiom extends DomainElement
     branchSize = branchSizeIn;
   }
 
+  /** To initialize the axiom, given the heads of the predicates its branches
+   *  refer to. What the axiom proves then depends only on the atoms with those
+   *  heads, and on what the axioms for those heads prove.
+   *
+   *  @param head
+   *          head of the axiom.
+   *  @param branchSizeIn
+   *          number of branches in the axiom.
+   *  @param dependenciesIn
+   *          the heads of the predicates the branches of the axiom refer to.
+  */
+  public Axiom(Predicate head, int branchSizeIn, int[] dependenciesIn)
+  {
+    this(head, branchSizeIn);
+    dependencies = dependenciesIn;
+  }
+
   /** To get the number of branches in this axiom.
    *
    *  @return
@@ -38,6 +60,17 @@ public abstract class Axiom extends DomainElement
     return branchSize;
   }
 
+  /** To get the heads of the predicates the branches of this axiom refer to.
+   *
+   *  @return
+   *          the heads, or <code>null</code> if they are not known, in which
+   *          case what this axiom proves might depend on any atom.
+  */
+  int[] getDependencies()
+  {
+    return dependencies;
+  }
+
   /** To get the label of a given branch of this axiom.
    *
    *  @param which
@@ -0,0 +1,80 @@
+package JSHOP2;
+
+/** Each object of this class holds the satisfiers the axioms for a predicate
+ *  have been found to prove for it so far, in the order they were found, and
+ *  the iterator that finds the rest of them when they are needed.
+ *
+ *  @version 1.0.3
+*/
+class AxiomAnswers
+{
+  /** The satisfiers found so far.
+  */
+  Term[][] answers;
+
+  /** Whether or not the satisfiers are being found right now, i.e., whether
+   *  or not the iterator that finds them is further up in the call stack.
+  */
+  boolean busy;
+
+  /** The next entry in the same hash chain.
+  */
+  AxiomAnswers chain;
+
+  /** Whether or not all the satisfiers have been found.
+  */
+  boolean complete;
+
+  /** The hash code of the predicate.
+  */
+  int hash;
+
+  /** The predicate the satisfiers are found for.
+  */
+  Predicate pattern;
+
+  /** The iterator that finds the rest of the satisfiers, looking at the
+   *  axioms only, or <code>null</code> once all of them have been found.
+  */
+  MyIterator producer;
+
+  /** The number of satisfiers found so far.
+  */
+  int size;
+
+  /** To initialize an entry for a predicate none of whose satisfiers have
+   *  been found yet.
+   *
+   *  @param patternIn
+   *          the predicate.
+   *  @param hashIn
+   *          the hash code of the predicate.
+   *  @param producerIn
+   *          the iterator that finds the satisfiers, looking at the axioms
+   *          only.
+  */
+  AxiomAnswers(Predicate patternIn, int hashIn, MyIterator producerIn)
+  {
+    pattern = patternIn;
+    hash = hashIn;
+    producer = producerIn;
+    answers = new Term[2][];
+  }
+
+  /** To add a satisfier to the end of those found so far.
+   *
+   *  @param answer
+   *          the satisfier.
+  */
+  void add(Term[] answer)
+  {
+    if (size == answers.length)
+    {
+      Term[][] old = answers;
+      answers = new Term[old.length << 1][];
+      System.arraycopy(old, 0, answers, 0, size);
+    }
+
+    answers[size++] = answer;
+  }
+}
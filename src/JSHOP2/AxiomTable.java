@@ -0,0 +1,174 @@
+package JSHOP2;
+
+/** This class represents a table of what the axioms for the predicates with
+ *  a given head prove, for every predicate with that head they have been
+ *  asked to prove, so that the axioms do not have to be used again every time
+ *  the same predicate needs to be proved. Two predicates are the same if
+ *  their arguments are the same, variable symbols included, and they have
+ *  the same number of variables.
+ *  <p>
+ *  The table is valid only as long as none of the atoms the axioms depend on
+ *  change, so the state of the world throws it away whenever one of them
+ *  does.
+ *
+ *  @version 1.0.3
+*/
+class AxiomTable
+{
+  /** The number of entries in the table.
+  */
+  private int count;
+
+  /** The hash chains of the table. The length of this array is always a power
+   *  of two.
+  */
+  private AxiomAnswers[] table;
+
+  /** To initialize an empty table.
+  */
+  AxiomTable()
+  {
+    table = new AxiomAnswers[8];
+  }
+
+  /** To find the entry for a given predicate, making one if there is none.
+   *
+   *  @param p
+   *          the predicate.
+   *  @param atoms
+   *          the set of atoms with the same head as the predicate.
+   *  @return
+   *          the entry.
+  */
+  AxiomAnswers find(Predicate p, AtomSet atoms)
+  {
+    int hash = hash(p.getParam()) * 31 + p.getVarCount();
+    hash ^= (hash >>> 16);
+
+    for (AxiomAnswers a = table[hash & (table.length - 1)]; a != null;
+         a = a.chain)
+      if (a.hash == hash && a.pattern.getVarCount() == p.getVarCount() &&
+          same(a.pattern.getParam(), p.getParam()))
+        return a;
+
+    if (++count > table.length - (table.length >> 2))
+    {
+      //-- Double the number of hash chains.
+      AxiomAnswers[] old = table;
+      table = new AxiomAnswers[old.length << 1];
+
+      for (int i = 0; i < old.length; i++)
+      {
+        AxiomAnswers next;
+
+        for (AxiomAnswers a = old[i]; a != null; a = next)
+        {
+          next = a.chain;
+          a.chain = table[a.hash & (table.length - 1)];
+          table[a.hash & (table.length - 1)] = a;
+        }
+      }
+    }
+
+    //-- The satisfiers of the predicate that are atoms are not in the table,
+    //-- so the iterator starts with the axioms.
+    MyIterator producer = new MyIterator(atoms);
+    producer.whichAxiom = 0;
+    producer.frame = new BindingFrame(p.getVarCount());
+
+    AxiomAnswers a = new AxiomAnswers(p, hash, producer);
+    a.chain = table[hash & (table.length - 1)];
+    table[hash & (table.length - 1)] = a;
+
+    return a;
+  }
+
+  /** To calculate the hash code of a term, variable symbols included.
+   *
+   *  @param t
+   *          the term.
+   *  @return
+   *          the hash code.
+  */
+  private static int hash(Term t)
+  {
+    if (t instanceof TermVariable)
+      return ((TermVariable)t).getIndex() * 0x9e3779b9;
+
+    if (t instanceof TermList && !t.isNil())
+    {
+      List l = ((TermList)t).getList();
+
+      return hash(l.getHead()) * 31 + hash(l.getTail());
+    }
+
+    return t.hashCode();
+  }
+
+  /** Whether or not a term has a call term in it.
+   *
+   *  @param t
+   *          the term.
+   *  @return
+   *          <code>true</code> if it has, <code>false</code> otherwise.
+  */
+  private static boolean hasCall(Term t)
+  {
+    if (t instanceof TermCall)
+      return true;
+
+    if (t instanceof TermList && !t.isNil())
+    {
+      List l = ((TermList)t).getList();
+
+      return (hasCall(l.getHead()) || hasCall(l.getTail()));
+    }
+
+    return false;
+  }
+
+  /** Whether or not what the axioms prove for a given predicate can be kept
+   *  in a table. The arguments of a predicate with call terms in them are
+   *  calculated anew every time it is proved, so such predicates are not.
+   *
+   *  @param p
+   *          the predicate.
+   *  @return
+   *          <code>true</code> if it can, <code>false</code> otherwise.
+  */
+  static boolean isTabled(Predicate p)
+  {
+    return (!p.isVar() && !hasCall(p.getParam()));
+  }
+
+  /** Whether or not two terms are the same, variable symbols included.
+   *
+   *  @param t1
+   *          the first term.
+   *  @param t2
+   *          the second term.
+   *  @return
+   *          <code>true</code> if they are, <code>false</code> otherwise.
+  */
+  private static boolean same(Term t1, Term t2)
+  {
+    if (t1 instanceof TermVariable)
+      return (t2 instanceof TermVariable &&
+              ((TermVariable)t1).getIndex() == ((TermVariable)t2).getIndex());
+
+    if (t2 instanceof TermVariable)
+      return false;
+
+    if (t1 instanceof TermList && t2 instanceof TermList && !t1.isNil() &&
+        !t2.isNil())
+    {
+      List l1 = ((TermList)t1).getList();
+      List l2 = ((TermList)t2).getList();
+
+      return (same(l1.getHead(), l2.getHead()) &&
+              same(l1.getTail(), l2.getTail()));
+    }
+
+    return t1.equals(t2);
+  }
+}
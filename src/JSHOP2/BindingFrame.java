@@ -0,0 +1,83 @@
+package JSHOP2;
+
+/** Each object of this class is a binding that is filled in while a unifier
+ *  is being looked for, and that can be reused for one unifier after another.
+ *  The variables it maps are recorded on a trail, so that they can be unmapped
+ *  again without looking at the whole binding, and a new array is made only
+ *  for the unifiers that are actually returned.
+ *
+ *  @version 1.0.3
+*/
+class BindingFrame
+{
+  /** The binding, indexed by the integers associated with variable symbols.
+  */
+  Term[] slots;
+
+  /** The number of variables mapped so far.
+  */
+  private int size;
+
+  /** The indexes of the variables mapped so far, in the order they were
+   *  mapped.
+  */
+  private int[] trail;
+
+  /** To initialize an empty binding frame.
+   *
+   *  @param varCount
+   *          the number of variables.
+  */
+  BindingFrame(int varCount)
+  {
+    slots = new Term[varCount];
+    trail = new int[varCount];
+  }
+
+  /** To map a variable to a term, unless it is already mapped, in which case
+   *  it must already be mapped to the same term.
+   *
+   *  @param index
+   *          the index of the variable.
+   *  @param t
+   *          the term.
+   *  @return
+   *          <code>false</code> if the variable is already mapped to another
+   *          term, <code>true</code> otherwise.
+  */
+  boolean bind(int index, Term t)
+  {
+    if (slots[index] == null)
+    {
+      slots[index] = t;
+      trail[size++] = index;
+      return true;
+    }
+
+    return t.equals(slots[index]);
+  }
+
+  /** To return the binding in a new array, and to make this frame empty
+   *  again.
+   *
+   *  @return
+   *          the binding.
+  */
+  Term[] take()
+  {
+    Term[] retVal = new Term[slots.length];
+    System.arraycopy(slots, 0, retVal, 0, slots.length);
+
+    undo();
+
+    return retVal;
+  }
+
+  /** To unmap all the variables mapped so far, making this frame empty again.
+  */
+  void undo()
+  {
+    while (size > 0)
+      slots[trail[--size]] = null;
+  }
+}
@@ -0,0 +1,183 @@
+package JSHOP2;
+
+import java.util.Comparator;
+
+/** Each object of this class holds the satisfiers of a <code>:sort-by</code>
+ *  logical precondition, and returns them in the order a stable sort would
+ *  put them in: satisfiers that the comparator finds equal are returned in
+ *  the order they were found. Rather than sorting all of them up front, the
+ *  first one is found by looking at each satisfier once, and only if another
+ *  one is asked for are the rest put in a heap, so that returning k of n
+ *  satisfiers takes O(n + k log n) comparisons.
+ *
+ *  @version 1.0.3
+*/
+class BindingHeap
+{
+  /** The number of satisfiers added since this object was last cleared.
+  */
+  private int added;
+
+  /** The function the satisfiers are sorted with.
+  */
+  private Comparator comp;
+
+  /** The satisfiers not returned yet. Once <code>heapified</code> is true,
+   *  they form a binary heap.
+  */
+  private Term[][] heap;
+
+  /** Whether or not the satisfiers not returned yet form a binary heap.
+  */
+  private boolean heapified;
+
+  /** For each satisfier not returned yet, the order in which it was found,
+   *  used to break ties.
+  */
+  private int[] order;
+
+  /** The number of satisfiers not returned yet.
+  */
+  private int size;
+
+  /** To initialize an empty heap.
+   *
+   *  @param compIn
+   *          the function the satisfiers are sorted with.
+  */
+  BindingHeap(Comparator compIn)
+  {
+    comp = compIn;
+    heap = new Term[8][];
+    order = new int[8];
+  }
+
+  /** To add a satisfier. All the satisfiers must be added before the first
+   *  one is removed.
+   *
+   *  @param b
+   *          the satisfier.
+  */
+  void add(Term[] b)
+  {
+    if (size == heap.length)
+    {
+      Term[][] oldHeap = heap;
+      heap = new Term[size << 1][];
+      System.arraycopy(oldHeap, 0, heap, 0, size);
+
+      int[] oldOrder = order;
+      order = new int[size << 1];
+      System.arraycopy(oldOrder, 0, order, 0, size);
+    }
+
+    heap[size] = b;
+    order[size++] = added++;
+  }
+
+  /** To remove all the satisfiers.
+  */
+  void clear()
+  {
+    for (int i = 0; i < size; i++)
+      heap[i] = null;
+
+    size = 0;
+    added = 0;
+    heapified = false;
+  }
+
+  /** Whether or not the satisfier at one position should be returned before
+   *  the one at another position.
+   *
+   *  @param i
+   *          the first position.
+   *  @param j
+   *          the second position.
+   *  @return
+   *          <code>true</code> if the first satisfier comes first,
+   *          <code>false</code> otherwise.
+  */
+  private boolean less(int i, int j)
+  {
+    int c = comp.compare(heap[i], heap[j]);
+
+    return (c < 0 || (c == 0 && order[i] < order[j]));
+  }
+
+  /** To remove the satisfier that comes first in the sorted order.
+   *
+   *  @return
+   *          the satisfier, or <code>null</code> if there are none left.
+  */
+  Term[] poll()
+  {
+    if (size == 0)
+      return null;
+
+    int min = 0;
+
+    //-- Most of the time only the first satisfier is used, so find it without
+    //-- building a heap.
+    if (!heapified)
+    {
+      if (added != size)
+      {
+        //-- This is the second satisfier asked for, so it is worth building
+        //-- the heap now.
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+          siftDown(i);
+
+        heapified = true;
+      }
+      else
+        for (int i = 1; i < size; i++)
+          if (less(i, min))
+            min = i;
+    }
+
+    Term[] retVal = heap[min];
+
+    size--;
+    heap[min] = heap[size];
+    order[min] = order[size];
+    heap[size] = null;
+
+    if (heapified)
+      siftDown(0);
+
+    return retVal;
+  }
+
+  /** To move the satisfier at a given position down the heap until neither
+   *  of its children comes before it.
+   *
+   *  @param i
+   *          the position.
+  */
+  private void siftDown(int i)
+  {
+    while (true)
+    {
+      int l = (i << 1) + 1;
+
+      if (l >= size)
+        return;
+
+      int c = (l + 1 < size && less(l + 1, l)) ? l + 1 : l;
+
+      if (!less(c, i))
+        return;
+
+      Term[] b = heap[i];
+      heap[i] = heap[c];
+      heap[c] = b;
+
+      int o = order[i];
+      order[i] = order[c];
+      order[c] = o;
+
+      i = c;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package JSHOP2;
+
+/** This is the common interface for the lower bounds on the cost of achieving
+ *  the remaining tasks, which a planner looking for the cheapest plan can use
+ *  to prune the search tree. A lower bound must be admissible, i.e., it must
+ *  never be more than the actual cost of any plan that achieves the remaining
+ *  tasks, or the plan returned may not be the cheapest one.
+ *
+ *  @version 1.0.3
+*/
+public interface CostBound
+{
+  /** To calculate a lower bound on the cost of achieving the remaining tasks
+   *  in a given state of the world.
+   *
+   *  @param tasks
+   *          the remaining tasks.
+   *  @param s
+   *          the current state of the world.
+   *  @return
+   *          the lower bound, which must not be negative.
+  */
+  public double lowerBound(TaskNetwork tasks, State s);
+}
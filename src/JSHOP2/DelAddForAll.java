@@ -77,9 +77,10 @@ public class DelAddForAll extends DelAddElement
   }
 
   /** To add the atoms of this <code>ForAll</code> delete/add element to the
-   *  current state of the world.
+   *  current state of the world. This function is synchronized because the
+   *  precondition is shared by all the planners that use the same domain.
   */
-  public void add(State s, Term[] binding, Vector[] delAddList)
+  public synchronized void add(State s, Term[] binding)
   {
     //-- To store the next binding that satisfies the precondtion of this
     //-- ForAll delete/add element.
@@ -102,20 +103,18 @@ public class DelAddForAll extends DelAddElement
         Predicate p = atoms[i].applySubstitution(nextB);
 
         //-- Try to add the resulting (presumably ground) atom to the current
-        //-- state of the world.
-        if (s.add(p))
-          //-- If the atom was really added to the current state of the world
-          //-- (i.e., it wasn't there before), add it to the list of the added
-          //-- atoms so that in case of a backtrack it can be retracted.
-          delAddList[1].add(p);
+        //-- state of the world. The state keeps track of the addition, so that
+        //-- in case of a backtrack the atom can be retracted.
+        s.add(p);
       }
     }
   }
 
   /** To delete the atoms of this <code>ForAll</code> delete/add element from
-   *  the current state of the world.
+   *  the current state of the world. This function is synchronized for the
+   *  same reason as <code>add</code>.
   */
-  public boolean del(State s, Term[] binding, Vector[] delAddList)
+  public synchronized boolean del(State s, Term[] binding)
   {
     //-- To store the next binding that satisfies the precondtion of this
     //-- ForAll delete/add element.
@@ -145,22 +144,10 @@ public class DelAddForAll extends DelAddElement
         if (s.isProtected(p))
           return false;
 
-        //-- To store the index of the deleted atom.
-        int index;
-
-        //-- Try to delete the atom from the current state of the world.
-        if ((index = s.del(p)) != -1)
-          //-- If the atom was really deleted from the current state of the
-          //-- world (i.e., it was there before), add it to the list of deleted
-          //-- atoms so that in case of a backtrack it can be added back. Also
-          //-- keep track of where the atom was, so that it can be added back
-          //-- exactly where it was. This is important because new bindings are
-          //-- calculated as they are needed (as opposed to calculating all of
-          //-- them in advance and returning them one-by-one), and therefore if a
-          //-- backtrack happens, the data strucutures should look exactly as
-          //-- they were before the backtracked decision (to apply the operator
-          //-- this ForAll delete/add element is associated with) was made.
-          delAddList[0].add(new NumberedPredicate(p, index));
+        //-- Try to delete the atom from the current state of the world. The
+        //-- state keeps track of the deletion, so that in case of a backtrack
+        //-- the atom can be added back exactly where it was.
+        s.del(p);
       }
     }
 
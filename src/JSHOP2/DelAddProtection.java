@@ -1,7 +1,5 @@
 package JSHOP2;
 
-import java.util.Vector;
-
 /** Each <code>Protection</code> element in the delete/add list of an operator
  *  both at compile time and run time is represented as an instance of this
  *  class.
@@ -28,32 +26,27 @@ public class DelAddProtection extends DelAddElement
 
   /** To add this atom to the list of protected atoms.
   */
-  public void add(State s, Term[] binding, Vector[] delAddList)
+  public void add(State s, Term[] binding)
   {
     //-- Apply the binding (and execute the possible code calls) first.
     Predicate p = atom.applySubstitution(binding);
 
-    //-- Protect the resulting atom.
+    //-- Protect the resulting atom. The state keeps track of the protection, so
+    //-- that in case of a backtrack it can be retracted.
     s.addProtection(p);
-
-    //-- Add the resulting atom to the list of added protections so that in
-    //-- case of a backtrack the protection can be retracted.
-    delAddList[3].add(p);
   }
 
   /** To delete this atom from the list of protected atoms.
   */
-  public boolean del(State s, Term[] binding, Vector[] delAddList)
+  public boolean del(State s, Term[] binding)
   {
     //-- Apply the binding (and execute the possible code calls) first.
     Predicate p = atom.applySubstitution(binding);
 
-    //-- Try to unprotect the resulting atom.
-    if (s.delProtection(p))
-      //-- If the atom was really unprotected (i.e., it was protected before),
-      //-- add it to the list of unprotected atoms so that in case of a
-      //-- backtrack it can be reprotected.
-      delAddList[2].add(p);
+    //-- Try to unprotect the resulting atom. If the atom was really
+    //-- unprotected (i.e., it was protected before), the state keeps track of
+    //-- it, so that in case of a backtrack it can be reprotected.
+    s.delProtection(p);
 
     //-- Trying to unprotect an atom (whether or not it is protected) is never
     //-- going to cause an operator to fail, so always return true.
@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /** This abstract class implements the basic common functionality of the all
  *  possible elements (i.e., methods, operators, and axioms) of a domain at
  *  run time.
@@ -10,10 +12,19 @@ package JSHOP2;
 */
 public abstract class DomainElement
 {
+  /** The number of domain elements initialized so far.
+  */
+  private static final AtomicInteger count = new AtomicInteger();
+
   /** Every element has a head, which is a predicate.
   */
   private Predicate head;
 
+  /** The number of this domain element, which is different from those of all
+   *  the other domain elements.
+  */
+  private final int id;
+
   /** To initialize the domain element.
    *
    *  @param headIn
@@ -22,6 +33,7 @@ public abstract class DomainElement
   public DomainElement(Predicate headIn)
   {
     head = headIn;
+    id = count.getAndIncrement();
   }
 
   /** This function returns the head of this domain element.
@@ -34,6 +46,17 @@ public abstract class DomainElement
     return head;
   }
 
+  /** This function returns the number of this domain element, which is
+   *  different from those of all the other domain elements.
+   *
+   *  @return
+   *          the number of this domain element.
+  */
+  int getId()
+  {
+    return id;
+  }
+
   /** This abstract function returns a handle that can be used to calculate,
    *  one by one, the bindings that satisfy the precondition of this domain
    *  element in a given state of the world with resepect to a given binding.
@@ -0,0 +1,186 @@
+package JSHOP2;
+
+/** This class represents the task atoms a planner has the option to achieve
+ *  next in a task network, i.e., its frontier, together with the position of
+ *  each task atom in the task network and a cursor over them. The planner
+ *  keeps one frontier per frame of its search and fills it again every time
+ *  the frame starts over, so that no objects are made at each node of the
+ *  search tree.
+ *
+ *  @version 1.0.3
+*/
+class Frontier
+{
+  /** The depth of the task network being looked at while the frontier is
+   *  being filled.
+  */
+  private int depth;
+
+  /** The index in <code>steps</code> where the position of each task atom
+   *  starts.
+  */
+  private int[] from = new int[8];
+
+  /** The position of the next task atom to be tried.
+  */
+  int next;
+
+  /** The position of the task network being looked at while the frontier is
+   *  being filled, as the indexes of the subtasks on the way to it.
+  */
+  private int[] path = new int[8];
+
+  /** The number of task atoms in the frontier.
+  */
+  int size;
+
+  /** The positions of all the task atoms in the frontier, one after the
+   *  other.
+  */
+  private int[] steps = new int[32];
+
+  /** The number of indexes in <code>steps</code> that are in use.
+  */
+  private int stepCount;
+
+  /** The atomic task networks that represent the task atoms in the frontier.
+  */
+  private TaskNetwork[] tasks = new TaskNetwork[8];
+
+  /** To add a task atom to the end of the frontier, at the position of the
+   *  task network being looked at, growing the frontier if needed.
+   *
+   *  @param t
+   *          the atomic task network that represents the task atom.
+  */
+  void add(TaskNetwork t)
+  {
+    if (size == tasks.length)
+    {
+      TaskNetwork[] oldTasks = tasks;
+      tasks = new TaskNetwork[size << 1];
+      System.arraycopy(oldTasks, 0, tasks, 0, size);
+
+      int[] oldFrom = from;
+      from = new int[size << 1];
+      System.arraycopy(oldFrom, 0, from, 0, size);
+    }
+
+    if (stepCount + depth > steps.length)
+    {
+      int[] old = steps;
+      steps = new int[(stepCount + depth) << 1];
+      System.arraycopy(old, 0, steps, 0, stepCount);
+    }
+
+    tasks[size] = t;
+    from[size++] = stepCount;
+
+    System.arraycopy(path, 0, steps, stepCount, depth);
+    stepCount += depth;
+  }
+
+  /** To take all the task atoms out of the frontier.
+  */
+  void clear()
+  {
+    size = 0;
+    next = 0;
+    stepCount = 0;
+  }
+
+  /** To look at a subtask of the task network being looked at.
+   *
+   *  @param i
+   *          the index of the subtask.
+  */
+  void enter(int i)
+  {
+    if (depth == path.length)
+    {
+      int[] old = path;
+      path = new int[depth << 1];
+      System.arraycopy(old, 0, path, 0, depth);
+    }
+
+    path[depth++] = i;
+  }
+
+  /** Whether or not there are task atoms left to be tried.
+   *
+   *  @return
+   *          <code>true</code> if there are task atoms left,
+   *          <code>false</code> otherwise.
+  */
+  boolean hasNext()
+  {
+    return (next < size);
+  }
+
+  /** To go back to looking at the task network that has the task network
+   *  being looked at as a subtask.
+  */
+  void leave()
+  {
+    depth--;
+  }
+
+  /** To return the next task atom to be tried.
+   *
+   *  @return
+   *          the atomic task network that represents the task atom.
+  */
+  TaskNetwork next()
+  {
+    return tasks[next++];
+  }
+
+  /** To get the position of the task atom returned last by <code>next</code>.
+   *
+   *  @return
+   *          the position, as the indexes of the subtasks on the way to the
+   *          task atom.
+  */
+  int[] position()
+  {
+    int start = from[next - 1];
+    int[] retVal = new int[positionEnd() - start];
+    System.arraycopy(steps, start, retVal, 0, retVal.length);
+
+    return retVal;
+  }
+
+  /** To get where the position of the task atom returned last by
+   *  <code>next</code> ends in <code>steps</code>.
+   *
+   *  @return
+   *          the index after the last index of the position.
+  */
+  private int positionEnd()
+  {
+    return (next < size) ? from[next] : stepCount;
+  }
+
+  /** To replace, in a given task network, the task atom returned last by
+   *  <code>next</code> with another task network.
+   *
+   *  @param t
+   *          the task network the frontier was filled from.
+   *  @param with
+   *          the task network to replace the task atom.
+   *  @return
+   *          the resulting task network.
+  */
+  TaskNetwork replace(TaskNetwork t, TaskNetwork with)
+  {
+    return t.replace(steps, from[next - 1], positionEnd(), with);
+  }
+
+  /** To empty the frontier, and to start looking at the whole task network.
+  */
+  void reset()
+  {
+    clear();
+    depth = 0;
+  }
+}
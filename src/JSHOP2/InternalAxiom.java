@@ -1,6 +1,8 @@
 package JSHOP2;
 
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.Vector;
 
 /** Each axiom at compile time is represented as an instance of this class.
@@ -78,8 +80,30 @@ public class InternalAxiom extends InternalElement
     //-- Call the constructor of the base class (class 'Axiom') with the code
     //-- that produces the head of this axiom, and number of branches of this
     //-- axiom as its parameters.
-    s += "\t\tsuper(" + getHead().toCode() + ", " + branches.size() + ");";
-    s += endl + "\t}" + endl + endl;
+    s += "\t\tsuper(" + getHead().toCode() + ", " + branches.size();
+
+    //-- If the heads of all the predicates the branches of this axiom refer to
+    //-- are known, pass them too, so that what this axiom proves needs to be
+    //-- found again only when the atoms with those heads change.
+    Set<Integer> heads = new LinkedHashSet<Integer>();
+    boolean known = true;
+
+    for (int i = 0; i < branches.size(); i++)
+      known &= ((LogicalPrecondition)branches.get(i)).findHeads(heads);
+
+    if (known)
+    {
+      s += ", new int[] {";
+
+      Iterator<Integer> e = heads.iterator();
+
+      while (e.hasNext())
+        s += " " + e.next() + (e.hasNext() ? "," : "");
+
+      s += (heads.isEmpty()) ? "}" : " }";
+    }
+
+    s += ");" + endl + "\t}" + endl + endl;
 
     //-- The function that returns an iterator that can be used to find all the
     //-- bindings that satisfy a given precondition of this axiom and return
@@ -27,6 +27,12 @@ public class InternalDomain
 	 */
 	private int planNo;
 
+	/**
+	 * Whether or not the user has requested the cheapest plan per planning
+	 * problem rather than the first ones found.
+	 */
+	private boolean optimal;
+
 	/**
 	 * A <code>Vector</code> of axioms seen so far in the domain description.
 	 * Each member is of type <code>InternalAxiom</code>.
@@ -693,9 +699,21 @@ public class InternalDomain
 		s += "\t\tState s = new State(" + constantsSize + ", d.getAxioms());"
 		  + endl;
 
-		// -- Pass the domain description and the initial state of the world to the
-		// -- JSHOP2 algorithm.
-		s += endl + "\t\tJSHOP2.initialize(d, s);" + endl + endl;
+		// -- Pass the domain description and the initial state of the world to a
+		// -- planner.
+		s += endl + "\t\tPlanner planner = new Planner(d, s);" + endl;
+
+		// -- Make the planner look for the cheapest plan if the user asked for it.
+		if(optimal)
+			s += "\t\tplanner.setOptimal(true, null);" + endl;
+
+		// -- The optional command line arguments of the problem are the limits on
+		// -- the time (in milliseconds) and the number of nodes of each search.
+		s += "\t\tif (args.length > 0)" + endl
+		  + "\t\t\tplanner.setLimits(Long.parseLong(args[0]), (args.length > 1) ? "
+		  + "Long.parseLong(args[1]) : 0);" + endl;
+
+		s += endl;
 
 		// -- Define the task list variable and the thread that solves the problems.
 		s += "\t\tTaskList tl;" + endl + "\t\tThread thread;" + endl + endl;
@@ -723,15 +741,14 @@ public class InternalDomain
 			s += endl + tl.getInitCode("tl") + endl;
 
 			// -- Define the thread that will solve this planning problem.
-			s += "\t\tthread = new SolverThread(tl, " + planNo + ");" + endl;
+			s += "\t\tthread = new SolverThread(planner, tl, " + planNo + ");" + endl;
 
 			// -- Start the thread that will solve this planning problem.
 			s += "\t\tthread.start();" + endl;
 
-			// -- Wait till thread is done, since JSHOP2's data members are static and
-			// -- can handle only one problem at a time.
-			s += "\t\twhile (thread.isAlive())" + endl + "\t\t\tThread.sleep(500);"
-			  + endl;
+			// -- Wait till thread is done, since the planner and its state of the
+			// -- world are reused for the next problem.
+			s += "\t\tthread.join();" + endl;
 
 			problemIdx++;
 		}
@@ -858,6 +875,9 @@ public class InternalDomain
 		// -- The number of solution plans to be returned.
 		int planNo = -1;
 
+		// -- Whether or not the cheapest plan is to be returned.
+		boolean optimal = false;
+
 		// -- Handle the number of solution plans the user wants to be returned.
 		if(args.length == 2 || args[0].substring(0, 2).equals("-r"))
 		{
@@ -865,6 +885,11 @@ public class InternalDomain
 				planNo = 1;
 			else if(args[0].equals("-ra"))
 				planNo = Integer.MAX_VALUE;
+			else if(args[0].equals("-rb"))
+			{
+				planNo = 1;
+				optimal = true;
+			}
 			else
 				try
 				{
@@ -878,13 +903,17 @@ public class InternalDomain
 		if(((args.length != 2) || planNo <= 0) && (args.length != 1))
 		{
 			System.err.println("usage: java JSHOP2Parser "
-			  + "[-r|-ra|-rSomePositiveInteger] input");
+			  + "[-r|-ra|-rb|-rSomePositiveInteger] input");
 			System.exit(1);
 		}
 
 		// -- If this is a planning problem, call the 'command' rule in the parser.
 		if(args.length == 2)
-			(new InternalDomain(new File(args[1]), planNo)).parser.command();
+		{
+			InternalDomain problem = new InternalDomain(new File(args[1]), planNo);
+			problem.optimal = optimal;
+			problem.parser.command();
+		}
 		// -- If this is a planning domain, call the 'domain' rule in the parser.
 		else
 			(new InternalDomain(new File(args[0]), -1)).parser.domain();
@@ -0,0 +1,64 @@
+package JSHOP2;
+
+/** Each object of this class represents the satisfiers of an atomic logical
+ *  expression that have the same arguments for the variables it is joined
+ *  on, in the order they were found.
+ *
+ *  @version 1.0.3
+*/
+class JoinBucket
+{
+  /** The next bucket in the same hash chain.
+  */
+  JoinBucket chain;
+
+  /** The hash code of the arguments shared by the satisfiers in this bucket.
+  */
+  int hash;
+
+  /** A binding with the arguments shared by the satisfiers in this bucket.
+  */
+  Term[] key;
+
+  /** The satisfiers in this bucket, without the variables the hash table is
+   *  keyed by.
+  */
+  Term[][] satisfiers;
+
+  /** The number of satisfiers in this bucket.
+  */
+  int size;
+
+  /** To initialize an empty bucket.
+   *
+   *  @param hashIn
+   *          the hash code of the arguments shared by the satisfiers in this
+   *          bucket.
+   *  @param keyIn
+   *          a binding with the arguments shared by the satisfiers in this
+   *          bucket.
+  */
+  JoinBucket(int hashIn, Term[] keyIn)
+  {
+    hash = hashIn;
+    key = keyIn;
+    satisfiers = new Term[2][];
+  }
+
+  /** To add a satisfier to the end of this bucket.
+   *
+   *  @param satisfier
+   *          the satisfier.
+  */
+  void add(Term[] satisfier)
+  {
+    if (size == satisfiers.length)
+    {
+      Term[][] old = satisfiers;
+      satisfiers = new Term[old.length << 1][];
+      System.arraycopy(old, 0, satisfiers, 0, size);
+    }
+
+    satisfiers[size++] = satisfier;
+  }
+}
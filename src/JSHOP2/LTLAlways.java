@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An instance of this class represents an expression in Linear Temporal Logic
  * of the form "always expr".
@@ -51,4 +53,14 @@ public class LTLAlways extends LTLExpression
   {
 	  return new LTLAlways(operand.applySubstitution(binding));
   }
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		return operand.findHeads(heads);
+	}
 }
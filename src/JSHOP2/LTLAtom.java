@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An instance of this class represents an expression in Linear Temporal Logic
  * that is atomic, meaning that it consists of a single predicate.
@@ -49,4 +51,19 @@ public class LTLAtom extends LTLExpression
   {
 	  return new LTLAtom(atom.applySubstitution(binding));
   }
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		if(atom.isVar() || atom.getHead() < 0)
+			return false;
+
+		heads.add(Integer.valueOf(atom.getHead()));
+
+		return true;
+	}
 }
@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An instance of this class represents an expression in Linear Temporal Logic
  * of the form "expr_1 or expr_2 or ... or expr_n".
@@ -81,4 +83,19 @@ public class LTLDisjunction extends LTLExpression
 		
 		return new LTLConjunction(newdisj);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		boolean known = true;
+
+		for(int i = 0; i < disjuncts.length; i++)
+			known &= disjuncts[i].findHeads(heads);
+
+		return known;
+	}
 }
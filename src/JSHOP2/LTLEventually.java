@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An instance of this class represents an expression in Linear Temporal Logic
  * of the form "eventually expr".
@@ -53,4 +55,14 @@ public class LTLEventually extends LTLExpression
   {
 	  return new LTLEventually(operand.applySubstitution(binding));
   }
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		return operand.findHeads(heads);
+	}
 }
@@ -1,6 +1,9 @@
 package JSHOP2;
 
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Set;
 
 /**
  * The subclasses of this class can be combined for form any expression in
@@ -19,6 +22,70 @@ public abstract class LTLExpression extends CompileTimeObject
 	 */
 	protected boolean hasTemporalOps;
 
+	/**
+	 * The heads of the predicates this expression refers to, <code>UNKNOWN</code>
+	 * if some of them are not known, or <code>null</code> if they have not been
+	 * looked for yet. The planners searching the branches of a parallel search
+	 * share this expression, so the array is published in a single volatile
+	 * write and never changed afterwards.
+	 */
+	private volatile int[] heads;
+
+	/**
+	 * The value of <code>heads</code> when some of the heads of the predicates
+	 * this expression refers to are not known.
+	 */
+	private static final int[] UNKNOWN = new int[0];
+
+	/**
+	 * The truth value this expression, if it has no temporal operators, was last
+	 * found to have, or <code>null</code> if it has not been evaluated yet.
+	 */
+	LTLValue value;
+
+	/**
+	 * This function finds the heads of the predicates this expression refers to,
+	 * i.e., of the atoms its truth value depends on.
+	 * 
+	 * @param found
+	 *          the set the heads found are added to.
+	 * @return <code>false</code> if this expression refers to a predicate whose
+	 *         head is not known, <code>true</code> otherwise.
+	 */
+	abstract boolean findHeads(Set<Integer> found);
+
+	/**
+	 * This function returns the heads of the predicates this expression refers
+	 * to. They are looked for only the first time.
+	 * 
+	 * @return the heads, or <code>null</code> if some of them are not known.
+	 */
+	int[] getHeads()
+	{
+		int[] retVal = heads;
+
+		// threads that find no heads published yet all look for the same ones,
+		// so any of them can publish what it found
+		if(retVal == null)
+		{
+			Set<Integer> found = new LinkedHashSet<Integer>();
+			retVal = UNKNOWN;
+
+			if(findHeads(found))
+			{
+				retVal = new int[found.size()];
+				Iterator<Integer> e = found.iterator();
+
+				for(int i = 0; i < retVal.length; i++)
+					retVal[i] = e.next().intValue();
+			}
+
+			heads = retVal;
+		}
+
+		return (retVal == UNKNOWN) ? null : retVal;
+	}
+
 	/**
 	 * This function is used to determine if this logical expression contains any
 	 * temporal operators.
@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An expression in Linear Temporal Logic that represents the value "false".
  * 
@@ -41,4 +43,14 @@ public class LTLFalse extends LTLExpression {
   {
 	  return this;
   }
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		return true;
+	}
 }
@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An instance of this class represents an expression in Linear Temporal Logic
  * of the form "forall(x : g(x)) expr". "g(x)" is called premise and must be an
@@ -74,4 +76,14 @@ public class LTLForAll extends LTLExpression
 		return new LTLForAll(premise.applySubstitution(binding), consequent
 		  .applySubstitution(binding));
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		return (premise.findHeads(heads) & consequent.findHeads(heads));
+	}
 }
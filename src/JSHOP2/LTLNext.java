@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An instance of this class represents an expression in Linear Temporal Logic
  * of the form "next expr".
@@ -50,4 +52,14 @@ public class LTLNext extends LTLExpression
   {
 	  return new LTLNext(operand.applySubstitution(binding));
   }
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		return operand.findHeads(heads);
+	}
 }
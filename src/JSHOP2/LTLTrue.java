@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An expression in Linear Temporal Logic that represents the value "true".
  * 
@@ -40,4 +42,14 @@ public class LTLTrue extends LTLExpression {
   {
 	  return this;
   }
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		return true;
+	}
 }
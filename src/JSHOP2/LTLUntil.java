@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /**
  * An instance of this class represents an expression in Linear Temporal Logic
  * of the form "expr1 until expr2".
@@ -76,4 +78,14 @@ public class LTLUntil extends LTLExpression
 		return new LTLUntil(firstOperand.applySubstitution(binding), secondOperand
 		  .applySubstitution(binding));
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see JSHOP2.LTLExpression#findHeads(java.util.Set)
+	 */
+	boolean findHeads(Set<Integer> heads)
+	{
+		return (firstOperand.findHeads(heads) & secondOperand.findHeads(heads));
+	}
 }
@@ -0,0 +1,44 @@
+package JSHOP2;
+
+/**
+ * The truth value an expression with no temporal operators was found to have
+ * in a state of the world, and the stamp of the atoms it depends on at the
+ * time, so that it can be used again as long as none of them have changed.
+ * Objects of this class never change, so that they can be shared between
+ * threads.
+ * 
+ * @version 1.0.3
+ */
+class LTLValue
+{
+	/**
+	 * The state of the world the value was found in.
+	 */
+	final State state;
+
+	/**
+	 * The stamp of the atoms the expression depends on in that state when the
+	 * value was found.
+	 */
+	final long stamp;
+
+	/**
+	 * The truth value.
+	 */
+	final boolean value;
+
+	/**
+	 * @param stateIn
+	 *          the state of the world the value was found in.
+	 * @param stampIn
+	 *          the stamp of the atoms the expression depends on.
+	 * @param valueIn
+	 *          the truth value.
+	 */
+	LTLValue(State stateIn, long stampIn, boolean valueIn)
+	{
+		state = stateIn;
+		stamp = stampIn;
+		value = valueIn;
+	}
+}
@@ -105,6 +105,26 @@ public class List extends CompileTimeObject
            tail.findUnifier(l.tail, binding);
   }
 
+  /** Find a unifier that will bind this list to another given list, writing
+   *  it into a binding frame.
+   *
+   *  @param l
+   *          the list with which we are finding a unifier.
+   *  @param f
+   *          the binding frame.
+   *  @return
+   *          <code>false</code> if the two lists can not be unified,
+   *          <code>true</code> otherwise.
+  */
+  boolean findUnifierList(List l, BindingFrame f)
+  {
+    //-- If 'l' is null, there will be no unifier.
+    if (l == null)
+      return false;
+
+    return head.findUnifier(l.head, f) && tail.findUnifier(l.tail, f);
+  }
+
   /** To get the head of this list, a term.
    *
    *  @return
@@ -136,6 +156,29 @@ public class List extends CompileTimeObject
     return tail;
   }
 
+  /** The hash code of a list is derived from its head and its tail, so that
+   *  it is consistent with <code>equals(List)</code>.
+  */
+  public int hashCode()
+  {
+    return hashCode(head, tail);
+  }
+
+  /** To calculate the hash code of a list with a given head and a given tail,
+   *  without making the list.
+   *
+   *  @param head
+   *          the head of the list.
+   *  @param tail
+   *          the tail of the list.
+   *  @return
+   *          the hash code of the list.
+  */
+  public static int hashCode(Term head, Term tail)
+  {
+    return 31 * head.hashCode() + tail.hashCode() + 1;
+  }
+
   /** Is this list ground (i.e., has no variables)?
    *
    *  @return
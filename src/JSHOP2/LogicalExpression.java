@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /** Each logical expression at compile time is represented as a class derived
  *  from this abstract class.
  *
@@ -18,6 +20,19 @@ public abstract class LogicalExpression extends CompileTimeObject
   */
   private int varCount;
 
+  /** To find the heads of the predicates this logical expression refers to,
+   *  i.e., of the atoms its satisfiers depend on.
+   *
+   *  @param heads
+   *          the set the heads found are added to.
+   *  @return
+   *          <code>false</code> if this logical expression refers to a
+   *          predicate whose head is not known at compile time, in which case
+   *          its satisfiers might depend on any atom, <code>true</code>
+   *          otherwise.
+  */
+  abstract boolean findHeads(Set<Integer> heads);
+
   /** This function returns a unique integer every time called. This unique
    *  integer is used at compile time to make names of classes that implement
    *  preconditions at run time unique.
@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /** Each assign term in a logical expression at compile time is represented as
  *  an instance of this class.
  *
@@ -30,6 +32,14 @@ public class LogicalExpressionAssignment extends LogicalExpression
     t = tIn;
   }
 
+  /** This logical expression refers to no predicates, so this function
+   *  simply returns <code>true</code>.
+  */
+  boolean findHeads(Set<Integer> heads)
+  {
+    return true;
+  }
+
   /** This class does not need any initialization code, therefore, this
    *  function simply returns an empty <code>String</code>.
   */
@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /** Each atomic term in a logical expression at compile time is represented as
  *  an instance of this class.
  *
@@ -23,6 +25,48 @@ public class LogicalExpressionAtomic extends LogicalExpression
     logicalAtom = logicalAtomIn;
   }
 
+  /** To add the head of the logical atom to the heads found so far.
+  */
+  boolean findHeads(Set<Integer> heads)
+  {
+    if (logicalAtom.isVar())
+      return false;
+
+    heads.add(Integer.valueOf(logicalAtom.getHead()));
+
+    return true;
+  }
+
+  /** To find the variables in the logical atom.
+   *
+   *  @param vars
+   *          the set the indexes of the variables found are added to.
+  */
+  void findVars(Set<Integer> vars)
+  {
+    findVars(logicalAtom.getParam(), vars);
+  }
+
+  /** To find the variables in a term.
+   *
+   *  @param t
+   *          the term.
+   *  @param vars
+   *          the set the indexes of the variables found are added to.
+  */
+  private static void findVars(Term t, Set<Integer> vars)
+  {
+    if (t instanceof TermVariable)
+      vars.add(Integer.valueOf(((TermVariable)t).getIndex()));
+    else if (t instanceof TermList && !t.isNil())
+    {
+      List l = ((TermList)t).getList();
+
+      findVars(l.getHead(), vars);
+      findVars(l.getTail(), vars);
+    }
+  }
+
   /** This class does not need any initialization code, therefore, this
    *  function simply returns an empty <code>String</code>.
   */
@@ -1,5 +1,8 @@
 package JSHOP2;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Vector;
 
 /** Each conjunction at compile time is represented as an instance of this
@@ -41,6 +44,18 @@ public class LogicalExpressionConjunction extends LogicalExpression
     cnt = getClassCnt();
   }
 
+  /** To find the heads of the predicates the conjuncts refer to.
+  */
+  boolean findHeads(Set<Integer> heads)
+  {
+    boolean known = true;
+
+    for (int i = 0; i < le.length; i++)
+      known &= le[i].findHeads(heads);
+
+    return known;
+  }
+
   /** This function produces Java code that implements the classes any object
    *  of which can be used at run time to represent the conjuncts of this
    *  conjunction, and the conjunction itself.
@@ -53,6 +68,13 @@ public class LogicalExpressionConjunction extends LogicalExpression
     for (int i = 0; i < le.length; i++)
       s += le[i].getInitCode();
 
+    //-- If there are consecutive atomic conjuncts, which can be reordered at
+    //-- run time, or atomic conjuncts that can be joined with the ones before
+    //-- them, the class for this conjunction extends the class that implements
+    //-- such conjunctions.
+    if (isReorderable() || isJoinable())
+      return s + getInitCodeSubclass();
+
     //-- The header of the class for this conjunction at run time. Note the use
     //-- of 'cnt' to make the name of this class unique.
     s += "class Precondition" + cnt + " extends Precondition" + endl;
@@ -102,6 +124,15 @@ public class LogicalExpressionConjunction extends LogicalExpression
     //-- Implement the 'resetHelper' function.
     s += getInitCodeReset();
 
+    //-- Define the 'setUnifier' function.
+    s += "\t}" + endl + endl + "\tpublic void setUnifier(Term[] unifier)" + endl;
+    s += "\t{" + endl;
+
+    //-- Implement the 'setUnifier' function by applying the unifier to each
+    //-- conjunct in this conjunction.
+    for (int i = 0; i < le.length; i++)
+      s += "\t\tp[" + i + "].setUnifier(unifier);" + endl;
+
     //-- Close the function definition and the class definition and return the
     //-- resulting string.
     return s + "\t}" + endl + "}" + endl + endl;
@@ -162,6 +193,32 @@ public class LogicalExpressionConjunction extends LogicalExpression
              + ");" + endl;
   }
 
+  /** This function produces Java code that implements the class for this
+   *  conjunction at run time when it can be reordered or joined, as a
+   *  subclass of <code>PreconditionConjunction</code>.
+   *
+   *  @return
+   *          the produced code as a <code>String</code>.
+  */
+  private String getInitCodeSubclass()
+  {
+    String s = "class Precondition" + cnt + " extends PreconditionConjunction"
+               + endl + "{" + endl;
+
+    //-- The constructor of the class, which passes the conjuncts to the
+    //-- constructor of its superclass.
+    s += "\tpublic Precondition" + cnt + "(Term[] unifier)" + endl + "\t{" + endl;
+    s += "\t\tsuper(new Precondition[] {" + endl;
+
+    for (int i = 0; i < le.length; i++)
+    {
+      s += "\t\t\t" + le[i].toCode();
+      s += ((i < le.length - 1) ? "," : "") + endl;
+    }
+
+    return s + "\t\t});" + endl + "\t}" + endl + "}" + endl + endl;
+  }
+
   /** This function produces Java code that implements the
    *  <code>resetHelper</code> function for the precondtion object that
    *  represents this conjunction at run time.
@@ -233,6 +290,51 @@ public class LogicalExpressionConjunction extends LogicalExpression
     return s;
   }
 
+  /** Whether or not this conjunction has an atomic conjunct that shares a
+   *  variable with an atomic conjunct before it, and can therefore be joined
+   *  with it at run time.
+   *
+   *  @return
+   *          <code>true</code> if it has, <code>false</code> otherwise.
+  */
+  private boolean isJoinable()
+  {
+    //-- The indexes of the variables in the atomic conjuncts seen so far.
+    Set<Integer> seen = new HashSet<Integer>();
+
+    for (int i = 0; i < le.length; i++)
+    {
+      if (!(le[i] instanceof LogicalExpressionAtomic))
+        continue;
+
+      Set<Integer> vars = new HashSet<Integer>();
+      ((LogicalExpressionAtomic)le[i]).findVars(vars);
+
+      if (!Collections.disjoint(seen, vars))
+        return true;
+
+      seen.addAll(vars);
+    }
+
+    return false;
+  }
+
+  /** Whether or not this conjunction has consecutive atomic conjuncts, which
+   *  can be reordered at run time.
+   *
+   *  @return
+   *          <code>true</code> if it has, <code>false</code> otherwise.
+  */
+  private boolean isReorderable()
+  {
+    for (int i = 1; i < le.length; i++)
+      if (le[i - 1] instanceof LogicalExpressionAtomic &&
+          le[i] instanceof LogicalExpressionAtomic)
+        return true;
+
+    return false;
+  }
+
   /** To propagate the variable count to all the logical expressions the
    *  conjunction of which this object represents.
   */
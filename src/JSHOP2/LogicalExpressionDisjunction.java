@@ -1,5 +1,6 @@
 package JSHOP2;
 
+import java.util.Set;
 import java.util.Vector;
 
 /** Each disjunction at compile time is represented as an instance of this
@@ -41,6 +42,18 @@ public class LogicalExpressionDisjunction extends LogicalExpression
     cnt = getClassCnt();
   }
 
+  /** To find the heads of the predicates the disjuncts refer to.
+  */
+  boolean findHeads(Set<Integer> heads)
+  {
+    boolean known = true;
+
+    for (int i = 0; i < le.length; i++)
+      known &= le[i].findHeads(heads);
+
+    return known;
+  }
+
   /** This function produces Java code that implements the classes any object
    *  of which can be used at run time to represent the disjuncts of this
    *  disjunction, and the disjunction itself.
@@ -119,8 +132,17 @@ public class LogicalExpressionDisjunction extends LogicalExpression
     for (i = 0; i < le.length; i++)
       s += "\t\tp[" + i + "].reset();" + endl;
 
-    return s + "\t\twhichClause = 0;" + endl + "\t}" + endl + "}" + endl +
-           endl;
+    s += "\t\twhichClause = 0;" + endl + "\t}" + endl + endl;
+
+    //-- Define the 'setUnifier' function.
+    s += "\tpublic void setUnifier(Term[] unifier)" + endl + "\t{" + endl;
+
+    //-- Implement the 'setUnifier' function by applying the unifier to each
+    //-- disjunct.
+    for (i = 0; i < le.length; i++)
+      s += "\t\tp[" + i + "].setUnifier(unifier);" + endl;
+
+    return s + "\t}" + endl + "}" + endl + endl;
   }
 
   /** To propagate the variable count to all the logical expressions the
@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /** Each <code>ForAll</code> logical expression at compile time is represented
  *  as an instance of this class.
  *
@@ -31,6 +33,14 @@ public class LogicalExpressionForAll extends LogicalExpression
     consequence = consequenceIn;
   }
 
+  /** To find the heads of the predicates the premise and the consequence of
+   *  this <code>ForAll</code> logical expression refer to.
+  */
+  boolean findHeads(Set<Integer> heads)
+  {
+    return (premise.findHeads(heads) & consequence.findHeads(heads));
+  }
+
   /** This function produces Java code that implements the classes any object
    *  of which can be used at run time to represent the premise and the
    *  consequence of the <code>ForAll</code> logical expression this object is
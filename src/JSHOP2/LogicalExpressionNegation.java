@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /** Each negative term in a logical expression at compile time is represented
  *  as an instance of this class.
  *
@@ -23,6 +25,14 @@ public class LogicalExpressionNegation extends LogicalExpression
     le = leIn;
   }
 
+  /** To find the heads of the predicates the negated logical expression
+   *  refers to.
+  */
+  boolean findHeads(Set<Integer> heads)
+  {
+    return le.findHeads(heads);
+  }
+
   /** This function produces Java code that implements the class any object of
    *  which can be used at run time to represent the logical expression this
    *  object is negating.
@@ -1,5 +1,7 @@
 package JSHOP2;
 
+import java.util.Set;
+
 /** Each logical precondition at compile time is represented as an instance of
  *  this class.
  *
@@ -57,6 +59,20 @@ public class LogicalPrecondition extends CompileTimeObject
     first = false;
   }
 
+  /** To find the heads of the predicates this logical precondition refers
+   *  to.
+   *
+   *  @param heads
+   *          the set the heads found are added to.
+   *  @return
+   *          <code>false</code> if it refers to a predicate whose head is not
+   *          known at compile time, <code>true</code> otherwise.
+  */
+  boolean findHeads(Set<Integer> heads)
+  {
+    return le.findHeads(heads);
+  }
+
   /** To check whether or not this logical precondition is marked
    *  <code>:first</code>.
    *
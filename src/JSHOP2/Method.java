@@ -14,6 +14,11 @@ public abstract class Method extends DomainElement
    *  satisfied.
   */
   private TaskList[] subs;
+
+  /** The possible decompositions of this method as task networks, which are
+   *  bound to make the task networks that replace the decomposed task.
+  */
+  private TaskNetwork[] networks;
   
 	/**
 	 * The LTL postcondition of this operator.
@@ -60,6 +65,26 @@ public abstract class Method extends DomainElement
   	return getSubs()[which].bind(binding);
   }
 
+  /** To apply a given branch of this method as <code>apply</code> does, but
+   *  to return the decomposition as a task network. The parts of the
+   *  decomposition that have no variables are not copied.
+   *
+   *  @param s
+   *          the current state of the world.
+   *  @param which
+   *          the branch.
+   *  @param binding
+   *          the binding that satisfies the precondition of the branch.
+   *  @return
+   *          the task network that replaces the decomposed task.
+  */
+  TaskNetwork decompose(State s, int which, Term[] binding)
+  {
+    s.addControlRule(postcondition.applySubstitution(binding));
+
+    return networks[which].bind(binding);
+  }
+
   /** To set the possible decompositions of this method.
    *
    *  @param subsIn
@@ -68,5 +93,9 @@ public abstract class Method extends DomainElement
   public void setSubs(TaskList[] subsIn)
   {
     subs = subsIn;
+    networks = new TaskNetwork[subs.length];
+
+    for (int i = 0; i < subs.length; i++)
+      networks[i] = TaskNetwork.of(subs[i]);
   }
 }
@@ -1,8 +1,5 @@
 package JSHOP2;
 
-import java.util.Iterator;
-import java.util.Vector;
-
 /** This class implements an iterator with data members that can keep track of
  *  where the algorithm is in terms of bindings found so far so that when the
  *  next binding is needed it can be calculated correctly. This class is needed
@@ -21,6 +18,31 @@ public class MyIterator
   */
   Axiom ax;
 
+  /** When the satisfiers found by the axioms are read from a table, the
+   *  index of the next one to be read.
+  */
+  int answer;
+
+  /** When the satisfiers found by the axioms are read from a table, the entry
+   *  of the table they are read from, <code>null</code> otherwise.
+  */
+  AxiomAnswers answers;
+
+  /** The set of atoms in the current state of the world for which we are
+   *  trying to find satisfiers.
+  */
+  AtomSet atoms;
+
+  /** The bucket of atoms that is being looked at, or <code>null</code> if all
+   *  the atoms with the same head are being looked at.
+  */
+  ArgBucket bucket;
+
+  /** The binding frame the unifiers are looked for in, which is reused from
+   *  one atom to the next.
+  */
+  BindingFrame frame;
+
   /** When an axiom is being used, this variable holds the binding that unifies
    *  the head of the axiom and the atom being proved.
   */
@@ -33,9 +55,13 @@ public class MyIterator
   boolean found;
 
   /** When looking at the current state of the world, this variable represents
-   *  the index of the corresponding <code>Vector</code>, when using an axiom
-   *  to prove an atom, this variable represents which branch of that axiom is
-   *  being used.
+   *  the entry of the last atom that was considered, or <code>null</code> if
+   *  no atom has been considered yet.
+  */
+  AtomEntry entry;
+
+  /** When using an axiom to prove an atom, this variable represents which
+   *  branch of that axiom is being used.
   */
   int index;
 
@@ -45,10 +71,11 @@ public class MyIterator
   */
   Precondition pre;
 
-  /** The <code>Vector</code> in the current state of the world that represents
-   *  the atoms for which we are trying to find satisfiers.
+  /** Whether or not the bucket of atoms to be looked at has been chosen yet.
+   *  It is chosen the first time a binding is needed, when the arguments of
+   *  the predicate being satisfied are known.
   */
-  Vector vec;
+  boolean selected;
 
   /** Which of the (possibly several) axioms that can be used to prove a
    *  certain atom is being used right now. If none is being used (i.e., we are
@@ -59,22 +86,27 @@ public class MyIterator
 
   /** To initialize this iterator.
    *
-   *  @param vecIn
-   *          The <code>Vector</code> in the current state of the world that
-   *          represents the atoms for which we are trying to find satisfiers.
+   *  @param atomsIn
+   *          The set of atoms in the current state of the world for which we
+   *          are trying to find satisfiers.
   */
-  public MyIterator(Vector vecIn)
+  public MyIterator(AtomSet atomsIn)
   {
     //-- Initially, no axiom is being considered.
     ax = null;
 
-    //-- Reset the index over the Vector of atoms to be considered.
+    //-- Start from the first atom to be considered.
+    entry = null;
+
+    //-- The atoms to be looked at have not been chosen yet.
+    selected = false;
+
     index = 0;
 
     //-- Initially, no axiom precondition is being considered.
     pre = null;
 
-    vec = vecIn;
+    atoms = atomsIn;
 
     //-- Initially, no axiom is being considered.
     whichAxiom = -1;
@@ -0,0 +1,72 @@
+package JSHOP2;
+
+/** Each object of this class identifies a whole task network, a state of the
+ *  world and the control rules that apply to it, so that a planner can
+ *  remember that no plan can be found for them. The task network is compared
+ *  in full. The state of the world is identified by its hash code, and the
+ *  control rules by the object that represents them, so that neither has to
+ *  be looked at as a whole at every node of the search tree.
+ *
+ *  @version 1.0.3
+*/
+class Nogood
+{
+  /** The hash code of this object, computed only once.
+  */
+  private int hash;
+
+  /** The control rules. Control rules that are the same but are represented
+   *  by different objects are taken to be different, which only means that
+   *  the task network is searched again.
+  */
+  private LTLExpression rules;
+
+  /** The hash code of the state of the world.
+  */
+  private long state;
+
+  /** The task network.
+  */
+  private TaskNetwork tasks;
+
+  /** To initialize this object.
+   *
+   *  @param stateIn
+   *          the hash code of the state of the world.
+   *  @param tasksIn
+   *          the task network.
+   *  @param rulesIn
+   *          the control rules.
+  */
+  Nogood(long stateIn, TaskNetwork tasksIn, LTLExpression rulesIn)
+  {
+    state = stateIn;
+    tasks = tasksIn;
+    rules = rulesIn;
+
+    long h = state ^ Term.mix(tasks.fingerprint());
+    h += System.identityHashCode(rules);
+    hash = (int)(h ^ (h >>> 32));
+  }
+
+  /** Whether or not another object identifies the same task network, state
+   *  of the world and control rules.
+  */
+  public boolean equals(Object o)
+  {
+    if (!(o instanceof Nogood))
+      return false;
+
+    Nogood n = (Nogood)o;
+
+    return (hash == n.hash && state == n.state && rules == n.rules &&
+            tasks.equals(n.tasks));
+  }
+
+  /** The hash code of this object.
+  */
+  public int hashCode()
+  {
+    return hash;
+  }
+}
@@ -1,12 +1,8 @@
 package JSHOP2;
 
 /** This class represents a predicate with an integer number associated with
- *  it. It serves two different purposes: First, to represent a protection on
- *  some predicate (the integer number being the number of times the predicate
- *  is protected), and second, when a predicate is deleted from the current
- *  state of the world, an object of this class represents the deleted
- *  predicate and where it was deleted from so that in case of a backtrack the
- *  deleted predicate can be added back exactly where it was before.
+ *  it. It is used to represent a protection on some predicate, the integer
+ *  number being the number of times the predicate is protected.
  *
  *  @author Okhtay Ilghami
  *  @author <a href="http://www.cs.umd.edu/~okhtay">http://www.cs.umd.edu/~okhtay</a>
@@ -14,6 +10,16 @@ package JSHOP2;
 */
 public class NumberedPredicate
 {
+  /** The next entry in the same hash chain, when this object is kept in a
+   *  <code>ProtectionSet</code>.
+  */
+  NumberedPredicate chain;
+
+  /** The hash code of the argument list of the predicate, when this object is
+   *  kept in a <code>ProtectionSet</code>.
+  */
+  int hash;
+
   /** The integer.
   */
   private int number;
@@ -1,7 +1,5 @@
 package JSHOP2;
 
-import java.util.Vector;
-
 /** Each operator at run time is represented as a class derived from this
  *  abstract class.
  *
@@ -64,31 +62,23 @@ public abstract class Operator extends DomainElement
     postcondition = postCondIn;
   }
 
-  /** This function is used to apply this operator to a given state.
+  /** This function is used to apply this operator to a given state. The atoms
+   *  and protections deleted from and added to the state as the result of
+   *  applying this operator are recorded in the trail of the state, so that
+   *  in case of a backtrack these changes can be undone by rolling the state
+   *  back to a mark taken before the operator was applied.
    *
    *  @param binding
    *          the current binding.
    *  @param s
    *          current state of the world.
-   *  @param delAdd
-   *          a 4-member array of type <code>Vector</code> used to keep track
-   *          of the atoms and protections deleted from and added to the
-   *          current state of the world as the result of applying this
-   *          operator. This data can be used later in case of a backtrack to
-   *          undo these changes.
    *  @return
    *          <code>true</code> if the operator was applicable,
    *          <code>false</code> otherwise. An operator is not applicable when
    *          at least one of the atoms it tries to delete is protected.
   */
-  public boolean apply(Term[] binding, State s, Vector[] delAdd)
+  public boolean apply(Term[] binding, State s)
   {
-    //-- Initialze the 'delAdd' array.
-    delAdd[0] = new Vector();
-    delAdd[1] = new Vector();
-    delAdd[2] = new Vector();
-    delAdd[3] = new Vector();
-
     //-- If the delete list is a variable,
     if (delVarIdx != -1)
     {
@@ -108,22 +98,10 @@ public abstract class Operator extends DomainElement
         if (s.isProtected(p))
           return false;
 
-        //-- To store the index of the deleted atom.
-        int index;
-
-        //-- Try to delete the atom from the current state of the world.
-        if ((index = s.del(p)) != -1)
-          //-- If the atom was really deleted from the current state of the
-          //-- world (i.e., it was there before), add it to the list of deleted
-          //-- atoms so that in case of a backtrack it can be added back. Also
-          //-- keep track of where the atom was, so that it can be added back
-          //-- exactly where it was. This is important because new bindings are
-          //-- calculated as they are needed (as opposed to calculating all of
-          //-- them in advance and returning them one-by-one), and therefore if a
-          //-- backtrack happens, the data strucutures should look exactly as
-          //-- they were before the backtracked decision to apply this operator
-          //-- was made.
-          delAdd[0].add(new NumberedPredicate(p, index));
+        //-- Try to delete the atom from the current state of the world. The
+        //-- state keeps track of the deletion, so that in case of a backtrack
+        //-- the atom can be added back exactly where it was.
+        s.del(p);
 
         l = l.getRest();
       }
@@ -134,7 +112,7 @@ public abstract class Operator extends DomainElement
       //-- For each delete/add element in the delete list,
       for (int i = 0; i < del.length; i++)
         //-- Try to delete the atom from the current state of the world.
-        if (!del[i].del(s, binding, delAdd))
+        if (!del[i].del(s, binding))
           //-- If the atom can not be deleted (i.e., it is protected), return
           //-- false because this operator can not be applied.
           return false;
@@ -154,12 +132,9 @@ public abstract class Operator extends DomainElement
         Predicate p = ((TermList)l.getHead()).toPredicate(0);
 
         //-- Try to add the resulting (presumably ground) atom to the current
-        //-- state of the world.
-        if (s.add(p))
-          //-- If the atom was really added to the current state of the world
-          //-- (i.e., it wasn't there before), add it to the list of the added
-          //-- atoms so that in case of a backtrack it can be retracted.
-          delAdd[1].add(p);
+        //-- state of the world. The state keeps track of the addition, so that
+        //-- in case of a backtrack the atom can be retracted.
+        s.add(p);
 
         l = l.getRest();
       }
@@ -170,7 +145,7 @@ public abstract class Operator extends DomainElement
       //-- For each delete/add element in the add list,
       for (int i = 0; i < add.length; i++)
         //-- Add it to the current state of the world.
-        add[i].add(s, binding, delAdd);
+        add[i].add(s, binding);
     }
     
     //-- Binds this operator's LTL postcondition and adds it to the control 
@@ -181,7 +156,7 @@ public abstract class Operator extends DomainElement
     //-- See if we can progress the state after this operator's application and
     //-- the addition of its postconditions - if not, operator is not
     //-- applicable. Don't worry about the changes we made above:
-    //-- The appropriate undo() calls will be made in JSHOP2.findPlanHelper()
+    //-- The appropriate undo() calls will be made in Planner.findPlanHelper()
     return s.progress();
   }
 
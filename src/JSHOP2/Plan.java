@@ -1,10 +1,65 @@
 package JSHOP2;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+/** Each operator instance in a plan is an object of this class, which also
+ *  links to the operator instances before it in the plan. Steps are never
+ *  changed once they are made, so plans that start the same way share the
+ *  steps they have in common, and copying a plan does not copy any steps.
+ *
+ *  @version 1.0.3
+*/
+class PlanStep
+{
+  /** The 64-bit hash code of the operator instances up to and including this
+   *  one.
+  */
+  long fingerprint;
+
+  /** The number of operator instances up to and including this one.
+  */
+  int length;
 
-/** This class represent a plan as a <code>LinkedList</code> of ground
- *  instances of operators.
+  /** The operator instance.
+  */
+  Predicate op;
+
+  /** The step before this one, or <code>null</code> if this is the first step
+   *  of the plan.
+  */
+  PlanStep prev;
+
+  /** To initialize this step.
+   *
+   *  @param opIn
+   *          the operator instance.
+   *  @param prevIn
+   *          the step before this one, or <code>null</code> if this is the
+   *          first step of the plan.
+  */
+  PlanStep(Predicate opIn, PlanStep prevIn)
+  {
+    op = opIn;
+    prev = prevIn;
+
+    long h = Term.fingerprintList(Term.fingerprintConstant(op.getHead()),
+                                  Term.fingerprint(op.getParam()));
+
+    if (prev == null)
+    {
+      fingerprint = h;
+      length = 1;
+    }
+    else
+    {
+      fingerprint = Term.fingerprintList(h, prev.fingerprint);
+      length = prev.length + 1;
+    }
+  }
+}
+
+/** This class represent a plan as a sequence of ground instances of
+ *  operators. The operator instances are kept as a chain of
+ *  <code>PlanStep</code>s from the last one back to the first one, which is
+ *  shared with the other plans that start the same way.
  *
  *  @author Okhtay Ilghami
  *  @author <a href="http://www.cs.umd.edu/~okhtay">http://www.cs.umd.edu/~okhtay</a>
@@ -19,28 +74,29 @@ public class Plan
   */
   final static String endl = System.getProperty("line.separator");
 
-  /** The plan as a <code>LinkedList</code> of ground instances of operators.
+  /** The last operator instance in the plan, or <code>null</code> if the plan
+   *  is empty.
   */
-  private LinkedList ops;
+  private PlanStep last;
 
   /** To initialize the plan to an empty list.
   */
   public Plan()
   {
-    ops = new LinkedList();
+    last = null;
     cost = 0;
   }
 
   /** This function is used by objects of this class to clone themselves.
    *
-   *  @param opsIn
-   *          the operators in the plan.
+   *  @param lastIn
+   *          the last operator instance in the plan.
    *  @param costIn
    *          the cost of the plan.
   */
-  private Plan(LinkedList opsIn, double costIn)
+  private Plan(PlanStep lastIn, double costIn)
   {
-    ops = opsIn;
+    last = lastIn;
     cost = costIn;
   }
 
@@ -55,17 +111,83 @@ public class Plan
   */
   public double addOperator(Operator op, Term[] binding)
   {
-    ops.addLast(op.getHead().applySubstitution(binding));
-    cost += op.getCost(binding);
+    double opCost = op.getCost(binding);
+
+    last = new PlanStep(op.getHead().applySubstitution(binding), last);
+    cost += opCost;
 
-    return op.getCost(binding);
+    return opCost;
   }
 
-  /** To clone an object of this class.
+  /** To clone an object of this class. The clone shares the operator
+   *  instances with this plan, so this takes constant time.
   */
   public Object clone()
   {
-    return new Plan((LinkedList)ops.clone(), cost);
+    return new Plan(last, cost);
+  }
+
+  /** Whether or not another plan is made of the same operator instances in
+   *  the same order as this plan.
+  */
+  public boolean equals(Object o)
+  {
+    if (!(o instanceof Plan))
+      return false;
+
+    PlanStep s1 = last;
+    PlanStep s2 = ((Plan)o).last;
+
+    if (size() != ((Plan)o).size())
+      return false;
+
+    while (s1 != s2)
+    {
+      if (s1.fingerprint != s2.fingerprint ||
+          s1.op.getHead() != s2.op.getHead() || !s1.op.equals(s2.op.getParam()))
+        return false;
+
+      s1 = s1.prev;
+      s2 = s2.prev;
+    }
+
+    return true;
+  }
+
+  /** To get the cost of this plan.
+   *
+   *  @return
+   *          the sum of the costs of the operator instances in this plan.
+  */
+  public double getCost()
+  {
+    return cost;
+  }
+
+  /** To get the operator instances in this plan.
+   *
+   *  @return
+   *          the operator instances, in the order they are in the plan.
+  */
+  public Predicate[] getOperators()
+  {
+    Predicate[] retVal = new Predicate[size()];
+
+    for (PlanStep s = last; s != null; s = s.prev)
+      retVal[s.length - 1] = s.op;
+
+    return retVal;
+  }
+
+  /** The hash code of a plan depends only on its operator instances, so that
+   *  it is consistent with <code>equals</code>.
+  */
+  public int hashCode()
+  {
+    if (last == null)
+      return 0;
+
+    return (int)(last.fingerprint ^ (last.fingerprint >>> 32));
   }
 
   /** To remove the operator instance at the end of the plan.
@@ -75,10 +197,20 @@ public class Plan
   */
   public void removeOperator(double opCost)
   {
-    ops.removeLast();
+    last = last.prev;
     cost -= opCost;
   }
 
+  /** To get the number of operator instances in this plan.
+   *
+   *  @return
+   *          the number of operator instances.
+  */
+  public int size()
+  {
+    return (last == null) ? 0 : last.length;
+  }
+
   /** This function returns a printable <code>String</code> representation of
    *  this plan.
    *
@@ -94,9 +226,9 @@ public class Plan
     String[] primitiveTasks = JSHOP2.getDomain().getPrimitiveTasks();
 
     //-- Iterate over the operator instances in the plan and print them.
-    Iterator e = ops.iterator();
-    while (e.hasNext())
-      retVal += ((Predicate)e.next()).toString(primitiveTasks) + endl;
+    Predicate[] ops = getOperators();
+    for (int i = 0; i < ops.length; i++)
+      retVal += ops[i].toString(primitiveTasks) + endl;
 
     return retVal + "--------------------" + endl;
   }
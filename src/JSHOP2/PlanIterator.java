@@ -0,0 +1,67 @@
+package JSHOP2;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/** Each object of this class iterates over the plans found by a planner,
+ *  resuming its search every time the next plan is asked for.
+ *
+ *  @version 1.0.3
+*/
+class PlanIterator implements Iterator<Plan>
+{
+  /** The next plan, if it has already been found, <code>null</code>
+   *  otherwise.
+  */
+  private Plan next;
+
+  /** The planner, or <code>null</code> if there are no more plans.
+  */
+  private Planner planner;
+
+  /** To initialize this iterator.
+   *
+   *  @param plannerIn
+   *          the planner, whose search has been started.
+  */
+  PlanIterator(Planner plannerIn)
+  {
+    planner = plannerIn;
+  }
+
+  /** Whether or not there are more plans. The search is resumed to find the
+   *  next plan, if it has not been found yet.
+  */
+  public boolean hasNext()
+  {
+    if (next == null && planner != null)
+    {
+      next = planner.nextPlan();
+
+      if (next == null)
+        planner = null;
+    }
+
+    return (next != null);
+  }
+
+  /** To return the next plan.
+  */
+  public Plan next()
+  {
+    if (!hasNext())
+      throw new NoSuchElementException();
+
+    Plan p = next;
+    next = null;
+
+    return p;
+  }
+
+  /** Plans can not be removed.
+  */
+  public void remove()
+  {
+    throw new UnsupportedOperationException();
+  }
+}
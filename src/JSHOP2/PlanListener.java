@@ -0,0 +1,20 @@
+package JSHOP2;
+
+/** This is the common interface for the objects that are told about the plans
+ *  a planner finds as soon as it finds them, rather than when the search is
+ *  over.
+ *
+ *  @version 1.0.3
+*/
+public interface PlanListener
+{
+  /** This function is called each time a plan is found. If the planner is
+   *  looking for the cheapest plan, it is called each time a plan cheaper than
+   *  the ones found before is found. It is called in the thread that found
+   *  the plan, and it should return quickly, since the search waits for it.
+   *
+   *  @param plan
+   *          the plan, which must not be changed.
+  */
+  public void planFound(Plan plan);
+}
@@ -0,0 +1,1650 @@
+package JSHOP2;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/** This class represents all the variables that JSHOP2 needs for each task
+ *  list it is trying to achieve, i.e., one frame of the search. The frames are
+ *  kept on an explicit stack rather than on the Java stack, so that the length
+ *  of the plans that can be found does not depend on the size of the Java
+ *  stack, and they are reused from one step of the search to the next.
+ *
+ *  @author Okhtay Ilghami
+ *  @author <a href="http://www.cs.umd.edu/~okhtay">http://www.cs.umd.edu/~okhtay</a>
+ *  @version 1.0.3
+*/
+class InternalVars
+{
+    /** The stage in which a frame is about to look at the tasks it has the
+     *  option to achieve.
+    */
+    static final int START = 0;
+
+    /** The stage in which a frame is about to consider the next task it has
+     *  the option to achieve.
+    */
+    static final int NEXT_TASK = 1;
+
+    /** The stage in which a frame is about to consider the next operator for a
+     *  primitive task.
+    */
+    static final int NEXT_OPERATOR = 2;
+
+    /** The stage in which a frame is about to consider the next binding that
+     *  satisfies the precondition of an operator.
+    */
+    static final int NEXT_OPERATOR_BINDING = 3;
+
+    /** The stage in which a frame has applied an operator and is waiting for
+     *  the remaining tasks to be achieved.
+    */
+    static final int OPERATOR_APPLIED = 4;
+
+    /** The stage in which a frame is about to consider the next method for a
+     *  compound task.
+    */
+    static final int NEXT_METHOD = 5;
+
+    /** The stage in which a frame is about to consider the next branch of a
+     *  method.
+    */
+    static final int NEXT_BRANCH = 6;
+
+    /** The stage in which a frame is about to consider the next binding that
+     *  satisfies the precondition of a branch of a method.
+    */
+    static final int NEXT_METHOD_BINDING = 7;
+
+    /** The stage in which a frame has decomposed a compound task and is
+     *  waiting for the subtasks to be achieved.
+    */
+    static final int METHOD_APPLIED = 8;
+
+    /** The binding that unifies the head of a method or an operator with the
+     *  task being achieved.
+    */
+    Term[] binding;
+
+    /** The position, in the task network of this frame, of the task network
+     *  chosen to look for the next task atom to achieve, as the indexes of the
+     *  subtasks on the way to it, or <code>null</code> for the whole task
+     *  network.
+    */
+    int[] chosen;
+
+    /** The cost of the operator applied by this frame, to be used in case of a
+     *  backtrack over that operator.
+    */
+    double cost;
+
+    /** The position in the trail of the current state of the world before an
+     *  operator was applied, to be used in case of a backtrack over that
+     *  operator.
+    */
+    int mark;
+
+    /** The task network and state of the world this frame started with, if
+     *  they are to be remembered when no plan can be found for them,
+     *  <code>null</code> otherwise.
+    */
+    Nogood nogood;
+
+    /** Whether or not at least one satisfier has been found for the current
+     *  branch of the current method. As soon as it becomes <code>true</code>,
+     *  further branches of the method will not be considered.
+    */
+    boolean found;
+
+    /** The index of the method or operator being considered.
+    */
+    int j;
+
+    /** The index of the branch of the current method being considered.
+    */
+    int k;
+
+    /** An array of methods that can achieve the compound task being
+     *  considered.
+    */
+    Method[] m;
+
+    /** Next binding that satisfies the precondition of the current method or
+     *  operator.
+    */
+    Term[] nextB;
+
+    /** An array of operators that can achieve the primitive task being
+     *  considered.
+    */
+    Operator[] o;
+
+    /** An iterator over the bindings that can satisfy the precondition of the
+     *  current method or operator.
+    */
+    Precondition p;
+
+    /** The iterators this frame has made for the preconditions of the methods
+     *  and operators it has considered, indexed by the numbers of the methods
+     *  and operators and then by the branches, to be used again rather than
+     *  made anew.
+    */
+    Precondition[][] pool;
+
+    /** The task atom chosen to be achieved next.
+    */
+    TaskAtom t;
+
+    /** The number of plans found before this frame started with its task
+     *  network, to tell whether or not any plans were found for it.
+    */
+    long planCount;
+
+    /** The task atoms we have the option to achieve right now, and the cursor
+     *  iterating over them. The frontier is reused from one step of the search
+     *  to the next.
+    */
+    Frontier t0 = new Frontier();
+
+    /** The task network that is left when the primitive task atom chosen to
+     *  be achieved next is achieved.
+    */
+    TaskNetwork rest;
+
+    /** The control rules that apply to the current state. These are maintained
+     *  locally for backtracking purposes.
+     */
+    LTLExpression rules;
+
+    /** The stage this frame is in, i.e., where the search should resume when
+     *  this frame becomes the top of the stack again.
+    */
+    int stage;
+
+    /** The whole task network this frame is to achieve.
+    */
+    TaskNetwork tasks;
+}
+
+/** Each object of this class is an instance of the JSHOP2 algorithm that
+ *  solves planning problems in a given domain, starting from a given state of
+ *  the world. A planner owns everything its search needs, so several planners
+ *  can look for plans at the same time, each in a thread of its own, as long
+ *  as they do not share their state objects.
+ *  <p>
+ *  A planner can also search in parallel: the top levels of its search tree
+ *  are then split into branches, each of which is searched by a planner of
+ *  its own in a <code>ForkJoinPool</code>.
+ *  <p>
+ *  While a planner is looking for plans, it is the current planner of the
+ *  thread it runs in, and it stays so after it is done, so that the plans it
+ *  found can be printed in terms of its domain. The functions of the
+ *  <code>JSHOP2</code> class refer to the current planner of the calling
+ *  thread.
+ *
+ *  @version 1.0.3
+*/
+public class Planner
+{
+  /** The planner that most recently looked for plans in each thread.
+  */
+  private static final ThreadLocal<Planner> current =
+    new ThreadLocal<Planner>();
+
+  /** The cheapest plan found so far, if this planner is looking for the
+   *  cheapest plan and is the root of the search.
+  */
+  private Plan bestPlan;
+
+  /** The cost of the cheapest plan found so far.
+  */
+  private double bestCost;
+
+  /** The position of the branch of the search tree in which the cheapest plan
+   *  so far was found, so that a plan found in a branch visited earlier by the
+   *  sequential search wins over it if it costs the same.
+  */
+  private int bestIndex;
+
+  /** The lower bound on the cost of achieving the remaining tasks, or
+   *  <code>null</code> if there is no such bound.
+  */
+  private CostBound bound;
+
+  /** The position of the branch of the search tree searched by this planner,
+   *  or 0 if this planner is the root of the search.
+  */
+  private int branchIndex;
+
+  /** The branches of the search tree found so far while splitting it, or
+   *  <code>null</code> if the search tree is not being split.
+  */
+  private ArrayList<SearchBranch> branches;
+
+  /** Whether or not the search has been given up.
+  */
+  private volatile boolean cancelled;
+
+  /** The plan currently being constructed.
+  */
+  private Plan currentPlan;
+
+  /** The time, in milliseconds, at which the search is to be stopped, or
+   *  <code>Long.MAX_VALUE</code> if there is no such time.
+  */
+  private long deadline;
+
+  /** Whether or not only distinct plans are to be returned.
+  */
+  private boolean distinct;
+
+  /** Whether or not the plans found by a parallel search must be the same,
+   *  and in the same order, as those the sequential search would find.
+  */
+  private boolean deterministic;
+
+  /** The domain description for the planning problem.
+  */
+  private Domain domain;
+
+  /** Whether or not the search is suspended after each plan found, so that
+   *  the plans can be iterated over as they are found.
+  */
+  private boolean lazy;
+
+  /** The object to be told about the plans as soon as they are found, or
+   *  <code>null</code> if there is no such object.
+  */
+  private PlanListener listener;
+
+  /** The number of nodes of the search tree expanded so far. In the planner
+   *  of a branch of a parallel search, this only counts the nodes not yet
+   *  added to the count of the root of the search.
+  */
+  private long nodes;
+
+  /** The maximum number of nodes of the search tree to be expanded, or
+   *  <code>Long.MAX_VALUE</code> if there is no such limit.
+  */
+  private long nodeLimit = Long.MAX_VALUE;
+
+  /** The maximum number of task networks and states of the world for which
+   *  no plan could be found to be remembered, or 0 if they are not to be
+   *  remembered.
+  */
+  private int nogoodLimit;
+
+  /** The task networks and states of the world for which no plan could be
+   *  found, the least recently used first, or <code>null</code> if they are
+   *  not to be remembered.
+  */
+  private LinkedHashMap<Nogood, Nogood> nogoods;
+
+  /** Whether or not this planner is looking for the cheapest plan rather than
+   *  for the first plans it finds.
+  */
+  private boolean optimal;
+
+  /** The number of levels of the search tree that are split into branches to
+   *  be searched in parallel, or 0 if the search is sequential.
+  */
+  private int parallelLevels;
+
+  /** The plans found so far by the branches of a parallel search that need
+   *  not be deterministic, in the order they were found.
+  */
+  private LinkedList<Plan> parallelPlans;
+
+  /** The number of times the current search has found a plan, including the
+   *  plans that were not kept because they had already been found.
+  */
+  private long plansFound;
+
+  /** The maximum number of plans to be returned.
+  */
+  private int planNo;
+
+  /** The plans are stored in this variable as a list of type
+   *  <code>Plan</code>.
+  */
+  private LinkedList<Plan> plans;
+
+  /** The pool in which the branches of the search tree are searched, or
+   *  <code>null</code> if the search is sequential.
+  */
+  private ForkJoinPool pool;
+
+  /** The index of the frame on the top of the stack from which the search is
+   *  to be resumed, or -1 if the search is over.
+  */
+  private int resumeAt;
+
+  /** The planner that is the root of the search, which keeps the cheapest
+   *  plan found so far.
+  */
+  private Planner root;
+
+  /** The plans found so far, if only distinct plans are to be returned,
+   *  <code>null</code> otherwise.
+  */
+  private HashSet<Plan> seen;
+
+  /** The branches of a parallel search being searched, or <code>null</code>
+   *  if there is no such search.
+  */
+  private ArrayList<SearchBranch> searched;
+
+  /** Whether or not the latest search was stopped because it ran out of time
+   *  or nodes, or because it was cancelled.
+  */
+  private volatile boolean stopped;
+
+  /** The maximum time, in milliseconds, a search may take, or 0 if there is no
+   *  such limit.
+  */
+  private long timeLimit;
+
+  /** The stack of the frames of the search. The frames are kept between
+   *  calls so that they can be reused.
+  */
+  private InternalVars[] stack;
+
+  /** The current state of the world.
+  */
+  private State state;
+
+  /** The task network to be achieved.
+  */
+  private TaskNetwork tasks;
+
+  /** To initialize this planner.
+   *
+   *  @param domainIn
+   *          the planning domain.
+   *  @param stateIn
+   *          the initial state of the world.
+  */
+  public Planner(Domain domainIn, State stateIn)
+  {
+    domain = domainIn;
+    state = stateIn;
+    stack = new InternalVars[64];
+  }
+
+  /** This function is called when a branch of a parallel search is done, to
+   *  give up searching the branches whose plans are not needed anymore.
+   *
+   *  @param b
+   *          the branch.
+  */
+  synchronized void branchDone(SearchBranch b)
+  {
+    //-- The search is already over.
+    if (searched == null)
+      return;
+
+    if (deterministic)
+    {
+      //-- If this branch alone has found enough plans, the branches after it
+      //-- need not be searched, unless some of those plans may turn out to
+      //-- have been found in the branches before it.
+      if (seen == null && b.plans.size() >= planNo)
+        cancelBranches(b.index + 1);
+    }
+    else
+    {
+      Iterator<Plan> e = b.plans.iterator();
+
+      while (e.hasNext() && parallelPlans.size() < planNo)
+      {
+        Plan plan = e.next();
+
+        if (!isNew(plan))
+          continue;
+
+        parallelPlans.addLast(plan);
+
+        if (listener != null)
+          listener.planFound(plan);
+      }
+
+      //-- If enough plans have been found, no branch need be searched.
+      if (parallelPlans.size() >= planNo)
+        cancelBranches(0);
+    }
+  }
+
+  /** To give up the search this planner is doing, if any. The search stops
+   *  at its next step and returns the plans found so far, as if it had run out
+   *  of time. This function can be called from any thread.
+  */
+  public void cancel()
+  {
+    stopped = true;
+    cancelled = true;
+
+    synchronized (this)
+    {
+      if (searched != null)
+        cancelBranches(0);
+    }
+  }
+
+  /** To give up searching the branches of a parallel search from a given
+   *  position on.
+   *
+   *  @param from
+   *          the position of the first branch to be given up.
+  */
+  private synchronized void cancelBranches(int from)
+  {
+    for (int i = from; i < searched.size(); i++)
+      if (searched.get(i).planner != null)
+        searched.get(i).planner.cancelled = true;
+  }
+
+  /** To clear the flags that tell that the search has been given up, so that
+   *  the next search is not given up unless it is cancelled again. This is to
+   *  be done before the search is handed to another thread, so that it is
+   *  given up even if it is cancelled before it has started.
+  */
+  void clearCancelled()
+  {
+    cancelled = false;
+    stopped = false;
+  }
+
+  /** This function is called when a frame goes back to the frame that chose
+   *  its task list, to remember that no plan could be found for the task
+   *  network and state of the world it started with, if that is the case.
+   *
+   *  @param v
+   *          the frame.
+  */
+  private void fail(InternalVars v)
+  {
+    if (v.nogood != null && plansFound == v.planCount)
+      nogoods.put(v.nogood, v.nogood);
+  }
+
+  /** To find plan(s) for a given initial task list. This planner becomes the
+   *  current planner of the calling thread.
+   *
+   *  @param tasksIn
+   *          the initial task list to be achieved.
+   *  @param planNoIn
+   *          the maximum number of plans to be returned.
+   *  @return
+   *          0 or more plans that achieve the given task list.
+  */
+  public LinkedList<Plan> findPlans(TaskList tasksIn, int planNoIn)
+  {
+    clearCancelled();
+
+    return solve(tasksIn, planNoIn);
+  }
+
+  /** To find plan(s) for a given initial task list as <code>findPlans</code>
+   *  does, except that if the search has been given up since the flags that
+   *  tell so were last cleared, it is given up right away.
+   *
+   *  @param tasksIn
+   *          the initial task list to be achieved.
+   *  @param planNoIn
+   *          the maximum number of plans to be returned.
+   *  @return
+   *          0 or more plans that achieve the given task list.
+  */
+  LinkedList<Plan> solve(TaskList tasksIn, int planNoIn)
+  {
+    lazy = false;
+
+    //-- If the initial state doesn't satisfy the control rules, there will be
+    //-- no plans.
+    if (!start(tasksIn, planNoIn))
+      return plans;
+
+    //-- Call the helper function.
+    if (pool != null && parallelLevels > 0)
+      findPlansParallel();
+    else
+      findPlanHelper(tasks, null);
+
+    if (bestPlan != null)
+      plans.addLast(bestPlan);
+
+    //-- Return the found plan(s).
+    return plans;
+  }
+
+  /** To split the top levels of the search tree into branches, search them in
+   *  parallel, and merge the plans found.
+  */
+  private void findPlansParallel()
+  {
+    //-- Do the sequential search, except that the search tree below the levels
+    //-- to be split is not searched but recorded as branches, in the order it
+    //-- would have been visited. This leaves the state of the world as it was.
+    branches = new ArrayList<SearchBranch>();
+    findPlanHelper(tasks, null);
+
+    ArrayList<SearchBranch> b = branches;
+    branches = null;
+
+    //-- The plans found by the branches in the order they were found, which is
+    //-- what is returned if the search need not be deterministic.
+    LinkedList<Plan> found = new LinkedList<Plan>();
+
+    synchronized (this)
+    {
+      parallelPlans = found;
+      searched = b;
+
+      for (int i = 0; i < b.size(); i++)
+      {
+        b.get(i).index = i;
+
+        if (b.get(i).planner == null)
+          branchDone(b.get(i));
+      }
+
+      //-- If the search ran out of time or nodes while splitting the search
+      //-- tree, the branches are given up right away.
+      if (stopped)
+        cancelBranches(0);
+    }
+
+    for (int i = 0; i < b.size(); i++)
+      if (b.get(i).planner != null)
+        pool.execute(b.get(i));
+
+    //-- Wait for the branches, merging their plans in the order the
+    //-- sequential search would have found them if the search must be
+    //-- deterministic. If we are looking for the cheapest plan, the branches
+    //-- have already offered their plans to this planner.
+    for (int i = 0; i < b.size(); i++)
+    {
+      SearchBranch branch = b.get(i);
+
+      if (branch.planner != null)
+        branch.join();
+
+      if (deterministic && !optimal)
+      {
+        Iterator<Plan> e = branch.plans.iterator();
+
+        while (e.hasNext() && plans.size() < planNo)
+        {
+          Plan plan = e.next();
+
+          if (!isNew(plan))
+            continue;
+
+          plans.addLast(plan);
+
+          if (listener != null)
+            listener.planFound(plan);
+        }
+
+        //-- The branches after this one need not be searched anymore.
+        if (plans.size() >= planNo)
+        {
+          cancelBranches(i + 1);
+          break;
+        }
+      }
+    }
+
+    if (!deterministic && !optimal)
+    {
+      //-- All the branches have to be done before the plans are returned.
+      for (int i = 0; i < b.size(); i++)
+        if (b.get(i).planner != null)
+          b.get(i).quietlyJoin();
+
+      synchronized (this)
+      {
+        Iterator<Plan> e = found.iterator();
+
+        while (e.hasNext() && plans.size() < planNo)
+          plans.addLast(e.next());
+      }
+    }
+
+    synchronized (this)
+    {
+      parallelPlans = null;
+      searched = null;
+    }
+
+    //-- Searching the branches may have changed the current planner of this
+    //-- thread, if it is a thread of the pool.
+    current.set(this);
+  }
+
+  /** This is the helper function that finds a plan. The search is done
+   *  without recursion: each task list being achieved has a frame on an
+   *  explicit stack, and each frame records the stage it is in so that the
+   *  search can resume there once the frames above it have failed.
+   *
+   *  @param tasksIn
+   *          the task network to be achieved.
+   *  @param chosen
+   *          the position, in the task network, of the task network chosen to
+   *          look for the next task atom to achieve, or <code>null</code> for
+   *          the whole task network. This variable is usually set to
+   *          <code>null</code> unless there is a method that is chosen to
+   *          decompose a task, and the decomposition of that task has not gone
+   *          all the way down to an operator. In that case, this variable will
+   *          be set to the position of the decomposition of that task.
+   *  @return
+   *          <code>true</code> if a plan is found, <code>false</code>
+   *          otherwise.
+  */
+  private boolean findPlanHelper(TaskNetwork tasksIn, int[] chosen)
+  {
+    push(0, tasksIn, chosen);
+    resumeAt = 0;
+
+    return resume();
+  }
+
+  /** To get the planner that most recently looked for plans in the calling
+   *  thread.
+   *
+   *  @return
+   *          the planner, or <code>null</code> if no planner has looked for
+   *          plans in the calling thread.
+  */
+  public static Planner getCurrent()
+  {
+    return current.get();
+  }
+
+  /** To get the planning domain of this planner.
+   *
+   *  @return
+   *          the planning domain.
+  */
+  public Domain getDomain()
+  {
+    return domain;
+  }
+
+  /** To get an iterator over the bindings that satisfy a precondition of a
+   *  method or an operator under a given binding. The iterator the given frame
+   *  made for that precondition before, if any, is used again, so that the
+   *  whole tree of iterators is not made anew every time.
+   *
+   *  @param v
+   *          the frame.
+   *  @param e
+   *          the method or operator.
+   *  @param binding
+   *          the binding.
+   *  @param which
+   *          which precondition to use.
+   *  @param count
+   *          the number of preconditions of the method or operator.
+   *  @return
+   *          the iterator, reset.
+  */
+  private static Precondition getIterator(InternalVars v, DomainElement e,
+                                          Term[] binding, int which, int count)
+  {
+    int id = e.getId();
+
+    if (v.pool == null || id >= v.pool.length)
+    {
+      Precondition[][] old = v.pool;
+      int length = (old == null) ? 16 : old.length << 1;
+      v.pool = new Precondition[Math.max(id + 1, length)][];
+
+      if (old != null)
+        System.arraycopy(old, 0, v.pool, 0, old.length);
+    }
+
+    Precondition[] pres = v.pool[id];
+
+    if (pres == null)
+      pres = v.pool[id] = new Precondition[count];
+
+    if (pres[which] == null)
+      pres[which] = e.getIterator(binding, which);
+    else
+    {
+      pres[which].setUnifier(binding);
+      pres[which].reset();
+    }
+
+    return pres[which];
+  }
+
+  /** To get the position, among the branches of the search tree, of the part
+   *  of the search tree being searched right now.
+   *
+   *  @return
+   *          the position.
+  */
+  private int getOrder()
+  {
+    //-- While the search tree is being split, what is being searched comes
+    //-- before the next branch to be split off.
+    if (branches != null)
+      return branches.size();
+
+    return branchIndex;
+  }
+
+  /** To get the current state of the world of this planner.
+   *
+   *  @return
+   *          the current state of the world.
+  */
+  public State getState()
+  {
+    return state;
+  }
+
+  /** Whether or not the latest search was complete, i.e., it was not stopped
+   *  because it ran out of time or nodes, or because it was cancelled.
+   *
+   *  @return
+   *          <code>true</code> if the latest search was complete,
+   *          <code>false</code> otherwise.
+  */
+  public boolean isComplete()
+  {
+    return !stopped;
+  }
+
+  /** Whether or not a plan has not been found before, if only distinct plans
+   *  are to be returned. If it has not, it is remembered.
+   *
+   *  @param plan
+   *          the plan.
+   *  @return
+   *          <code>true</code> if the plan has not been found before, or if
+   *          all the plans are to be returned, <code>false</code> otherwise.
+  */
+  private boolean isNew(Plan plan)
+  {
+    if (seen == null || seen.contains(plan))
+      return (seen == null);
+
+    seen.add((Plan)plan.clone());
+
+    return true;
+  }
+
+  /** To count a node of the search tree being expanded, and to check whether
+   *  or not the search has run out of time or nodes. The clock is only looked
+   *  at every 1024 nodes.
+   *
+   *  @return
+   *          <code>true</code> if the search has run out of time or nodes,
+   *          <code>false</code> otherwise.
+  */
+  private boolean isOutOfBudget()
+  {
+    if ((++nodes & 1023) != 0 && (root != this || nodes < nodeLimit))
+      return false;
+
+    //-- The planner of a branch adds its nodes to the count of the root.
+    if (root != this)
+    {
+      nodes = 0;
+      return root.spend(1024);
+    }
+
+    return spend(0);
+  }
+
+  /** Whether or not a plan that costs a given amount, found in a given
+   *  branch of the search tree, would not be cheaper than the cheapest plan
+   *  found so far.
+   *
+   *  @param cost
+   *          the cost.
+   *  @param index
+   *          the position of the branch.
+   *  @return
+   *          <code>true</code> if the plan would not be cheaper,
+   *          <code>false</code> otherwise.
+  */
+  private synchronized boolean isWorse(double cost, int index)
+  {
+    return (cost > bestCost || (cost == bestCost && index >= bestIndex));
+  }
+
+  /** Whether or not the part of the search tree below the current node can be
+   *  pruned because no plan in it can be cheaper than the cheapest plan found
+   *  so far. This assumes that the costs of the operators are not negative.
+   *
+   *  @param remaining
+   *          the task network that is left to be achieved.
+   *  @return
+   *          <code>true</code> if it can be pruned, <code>false</code>
+   *          otherwise.
+  */
+  private boolean isPruned(TaskNetwork remaining)
+  {
+    double cost = currentPlan.getCost();
+
+    if (bound != null)
+      cost += bound.lowerBound(remaining, state);
+
+    return root.isWorse(cost, getOrder());
+  }
+
+  /** To return an iterator over the plans for a given initial task list. The
+   *  plans are found one at a time, as they are asked for: the search is
+   *  suspended after each plan found, and resumed when the next plan is asked
+   *  for, so that only the plans that are needed are looked for and the plans
+   *  already returned are not kept. This planner becomes the current planner
+   *  of the calling thread.
+   *  <p>
+   *  The search is sequential even if this planner is set to search in
+   *  parallel. If this planner looks for the cheapest plan, the whole search
+   *  is done before the cheapest plan is returned. This planner must not be
+   *  used for another search as long as the iterator is in use.
+   *
+   *  @param tasksIn
+   *          the initial task list to be achieved.
+   *  @return
+   *          the iterator.
+  */
+  public Iterator<Plan> iteratePlans(TaskList tasksIn)
+  {
+    clearCancelled();
+
+    if (optimal)
+      return solve(tasksIn, 1).iterator();
+
+    lazy = true;
+
+    if (!start(tasksIn, Integer.MAX_VALUE))
+      return plans.iterator();
+
+    push(0, tasks, null);
+    resumeAt = 0;
+
+    return new PlanIterator(this);
+  }
+
+  /** To make an empty table of the task networks and states of the world for
+   *  which no plan could be found, which forgets the least recently used ones
+   *  when it gets full.
+   *
+   *  @param limit
+   *          the maximum size of the table.
+   *  @return
+   *          the table, or <code>null</code> if the limit is 0.
+  */
+  private static LinkedHashMap<Nogood, Nogood> newNogoods(final int limit)
+  {
+    if (limit <= 0)
+      return null;
+
+    return new LinkedHashMap<Nogood, Nogood>(16, 0.75f, true)
+    {
+      protected boolean removeEldestEntry(Map.Entry<Nogood, Nogood> eldest)
+      {
+        return size() > limit;
+      }
+    };
+  }
+
+  /** To find the next plan, resuming a search that was suspended after
+   *  finding a plan.
+   *
+   *  @return
+   *          the next plan, or <code>null</code> if there are no more plans.
+  */
+  Plan nextPlan()
+  {
+    current.set(this);
+
+    if (!resume())
+      return null;
+
+    return plans.removeFirst();
+  }
+
+  /** To offer a plan to this planner as a candidate for the cheapest plan.
+   *
+   *  @param plan
+   *          the plan, which is copied if it is kept.
+   *  @param index
+   *          the position of the branch of the search tree the plan was found
+   *          in.
+  */
+  private synchronized void offer(Plan plan, int index)
+  {
+    if (bestPlan == null || !isWorse(plan.getCost(), index))
+    {
+      bestPlan = (Plan)plan.clone();
+      bestCost = plan.getCost();
+      bestIndex = index;
+
+      if (listener != null)
+        listener.planFound(bestPlan);
+    }
+  }
+
+  /** To get a frame for a task network from the stack of frames, growing the
+   *  stack if necessary. The frames are reused, so the frame returned may
+   *  still hold values from an earlier step of the search.
+   *
+   *  @param top
+   *          the position of the frame in the stack.
+   *  @param tasksIn
+   *          the task network the frame is going to achieve.
+   *  @param chosen
+   *          the position, in the task network, of the task network the frame
+   *          is going to choose the next task atom to achieve from, or
+   *          <code>null</code> for the whole task network.
+   *  @return
+   *          the frame, in its initial stage.
+  */
+  private InternalVars push(int top, TaskNetwork tasksIn, int[] chosen)
+  {
+    if (top == stack.length)
+    {
+      InternalVars[] old = stack;
+      stack = new InternalVars[old.length << 1];
+      System.arraycopy(old, 0, stack, 0, old.length);
+    }
+
+    if (stack[top] == null)
+      stack[top] = new InternalVars();
+
+    InternalVars v = stack[top];
+    v.tasks = tasksIn;
+    v.chosen = chosen;
+    v.stage = InternalVars.START;
+
+    return v;
+  }
+
+  /** To resume the search from the frame on the top of the stack when it was
+   *  suspended.
+   *
+   *  @return
+   *          <code>true</code> if a plan is found, <code>false</code>
+   *          otherwise.
+  */
+  private boolean resume()
+  {
+    //-- The index of the top frame in the stack.
+    int top = resumeAt;
+
+    if (top < 0)
+      return false;
+
+    //-- The frame on the top of the stack.
+    InternalVars v = stack[top];
+
+    while (true)
+    {
+      //-- Stop if the search has been given up.
+      if (cancelled)
+        return false;
+
+      switch (v.stage)
+      {
+        case InternalVars.START:
+          //-- Find all the tasks that we have the option to achieve right now.
+          //-- This equals to the first task in the current task list if it is
+          //-- ordered, or the first task in all the subtasks of the current
+          //-- task list if it is unordered. In the latter case, if there is an
+          //-- immediate task as the first task of any of the subtasks, that
+          //-- immediate task and ONLY that immediate task is returned.
+          v.tasks.getFirst(v.chosen, v.t0);
+
+          //-- If no plan could be found before for the whole task network in
+          //-- the current state of the world, go back to the frame that chose
+          //-- this task list right away. This is not done while looking for
+          //-- the cheapest plan, since there the search below a node also
+          //-- depends on the cost of the plan so far, nor while splitting the
+          //-- search tree, since the branches are not searched then.
+          v.nogood = null;
+
+          if (nogoods != null && v.chosen == null && !optimal &&
+              branches == null)
+          {
+            Nogood n = new Nogood(state.fingerprint(), v.tasks,
+                                  state.getControlRules());
+
+            if (nogoods.get(n) != null)
+            {
+              if (--top < 0)
+                return false;
+
+              v = stack[top];
+              break;
+            }
+
+            v.nogood = n;
+            v.planCount = plansFound;
+          }
+
+          //-- If there are no tasks left (which is never the case for a chosen
+          //-- decomposition, since it is not empty),
+          if (v.t0.size == 0)
+          {
+            //-- Check that the final state satisfies any Eventually
+            //-- conditions, and if it does, add the current plan to the list
+            //-- of the plans for the given task network. Note that in the case
+            //-- where we are looking for more than one plan, we add a clone of
+            //-- the current plan to the list rather than the current plan
+            //-- itself since the current plan will be changed during the look
+            //-- for other plans.
+            if (state.isValidFinalState())
+            {
+              plansFound++;
+
+              //-- If we are looking for the cheapest plan, the plan is kept
+              //-- only if it is the cheapest so far, and the search goes on.
+              if (optimal)
+                root.offer(currentPlan, getOrder());
+              //-- While the search tree is being split, the plan becomes a
+              //-- branch of its own.
+              else if (branches != null)
+                branches.add(new SearchBranch((Plan)currentPlan.clone()));
+              //-- If only distinct plans are to be returned, the plan is
+              //-- ignored if the same plan has already been found.
+              else if (isNew(currentPlan))
+              {
+                if (planNo != 1 || lazy)
+                  plans.addLast((Plan)currentPlan.clone());
+                else
+                  plans.addLast(currentPlan);
+
+                if (listener != null)
+                  listener.planFound(plans.getLast());
+
+                //-- If we have found the maximum number of plans we are
+                //-- allowed, or if the search is to be suspended after each
+                //-- plan, stop the search. It can be resumed from the frame
+                //-- that chose this task list.
+                if (plans.size() >= planNo || lazy)
+                {
+                  resumeAt = top - 1;
+                  return true;
+                }
+              }
+            }
+
+            //-- Go back to the frame that chose this task list.
+            fail(v);
+
+            if (--top < 0)
+              return false;
+
+            v = stack[top];
+            break;
+          }
+
+          //-- Iterate over the tasks we have the option to achieve right now,
+          //-- starting with the first one.
+          v.stage = InternalVars.NEXT_TASK;
+          break;
+
+        case InternalVars.NEXT_TASK:
+          //-- If all the options were tried and none worked, go back to the
+          //-- frame that chose this task list.
+          if (!v.t0.hasNext())
+          {
+            fail(v);
+
+            if (--top < 0)
+              return false;
+
+            v = stack[top];
+            break;
+          }
+
+          //-- Find the next option.
+          v.t = v.t0.next().getTask();
+
+          //-- If that task is primitive,
+          if (v.t.isPrimitive())
+          {
+            //-- Find the task network that is left once the task is achieved,
+            //-- by replacing the task with an empty task network.
+            v.rest = v.t0.replace(v.tasks, TaskNetwork.empty);
+
+            //-- Find all the operators that achieve this primitive task.
+            v.o = domain.ops[v.t.getHead().getHead()];
+            v.j = -1;
+            v.stage = InternalVars.NEXT_OPERATOR;
+          }
+          //-- If that task is compound,
+          else
+          {
+            //-- Find all the methods that decompose this compound task.
+            v.m = domain.methods[v.t.getHead().getHead()];
+            v.j = -1;
+            v.stage = InternalVars.NEXT_METHOD;
+          }
+          break;
+
+        case InternalVars.NEXT_OPERATOR:
+          //-- If there are no more operators, try the next task.
+          if (++v.j == v.o.length)
+          {
+            v.stage = InternalVars.NEXT_TASK;
+            break;
+          }
+
+          //-- Find the binding that unifies the head of the operator with the
+          //-- task.
+          v.binding = v.o[v.j].unify(v.t.getHead());
+
+          //-- If there is such bindings, get the iterator that iterates over
+          //-- all the bindings that can satisfy the precondition for this
+          //-- operator.
+          if (v.binding != null)
+          {
+            v.p = getIterator(v, v.o[v.j], v.binding, 0, 1);
+            v.stage = InternalVars.NEXT_OPERATOR_BINDING;
+          }
+          break;
+
+        case InternalVars.NEXT_OPERATOR_BINDING:
+          //-- If there are no more such bindings, try the next operator.
+          if ((v.nextB = v.p.nextBinding()) == null)
+          {
+            v.stage = InternalVars.NEXT_OPERATOR;
+            break;
+          }
+
+          //-- Merge the two bindings.
+          Term.merge(v.nextB, v.binding);
+
+          //-- Save the current control rules in case of a backtrack later.
+          v.rules = state.getControlRules();
+
+          //-- Remember where the trail of the changes made to the current
+          //-- state of the world is, so that the changes made by this operator
+          //-- can be undone in case of a backtrack later.
+          v.mark = state.mark();
+
+          //-- If the operator is applicable, apply it, and,
+          if (v.o[v.j].apply(v.nextB, state))
+          {
+            //-- Add the instance of the operator that achieved this task to
+            //-- the beginning of the plan, remembering how much it cost.
+            v.cost = currentPlan.addOperator(v.o[v.j], v.nextB);
+
+            //-- Push a new frame to achieve the remaining tasks, unless this is
+            //-- the level below which the search tree is being split.
+            v.stage = InternalVars.OPERATOR_APPLIED;
+
+            //-- If we are looking for the cheapest plan and no plan for the
+            //-- remaining tasks can be cheaper than the cheapest plan so far,
+            //-- backtrack right away.
+            if (optimal && isPruned(v.rest))
+              break;
+
+            //-- Stop if the search has run out of time or nodes.
+            if (isOutOfBudget())
+              return false;
+
+            if (branches != null && top + 1 == parallelLevels)
+              branches.add(split(v.rest, null));
+            else
+              v = push(++top, v.rest, null);
+            break;
+          }
+
+          //-- Undo the changes that were the result of applying this operator,
+          //-- because it was not applicable.
+          state.rollback(v.mark);
+          state.undo(v.rules);
+          break;
+
+        case InternalVars.OPERATOR_APPLIED:
+          //-- No plan was found for the remaining tasks, so remove the
+          //-- operator from the current plan.
+          currentPlan.removeOperator(v.cost);
+
+          //-- Undo the changes that were the result of applying this operator,
+          //-- because we are backtracking here.
+          state.rollback(v.mark);
+          state.undo(v.rules);
+          v.stage = InternalVars.NEXT_OPERATOR_BINDING;
+          break;
+
+        case InternalVars.NEXT_METHOD:
+          //-- If there are no more methods, try the next task.
+          if (++v.j == v.m.length)
+          {
+            v.stage = InternalVars.NEXT_TASK;
+            break;
+          }
+
+          //-- Find the binding that unifies the head of the method with the
+          //-- task.
+          v.binding = v.m[v.j].unify(v.t.getHead());
+
+          //-- If there is such binding,
+          if (v.binding != null)
+          {
+            //-- Initially, precondition of no branch of this method has
+            //-- already been satisfied, so set this variable to false.
+            v.found = false;
+            v.k = 0;
+            v.stage = InternalVars.NEXT_BRANCH;
+          }
+          break;
+
+        case InternalVars.NEXT_BRANCH:
+          //-- Iterate on all the branches of this method. Note the use of
+          //-- 'v.found' here. It is there because of the semantics of the
+          //-- method branches in JSHOP2: Second branch is considered only when
+          //-- there is no binding for the first branch, the third branch is
+          //-- considered only when there is no binding for the first and
+          //-- second branches, etc.
+          if (v.k == v.m[v.j].getSubs().length || v.found)
+          {
+            v.stage = InternalVars.NEXT_METHOD;
+            break;
+          }
+
+          //-- Get the iterator that iterates over all the bindings that can
+          //-- satisfy the precondition for this branch of this method.
+          v.p = getIterator(v, v.m[v.j], v.binding, v.k,
+                            v.m[v.j].getSubs().length);
+          v.stage = InternalVars.NEXT_METHOD_BINDING;
+          break;
+
+        case InternalVars.NEXT_METHOD_BINDING:
+          //-- If there are no more such bindings, try the next branch.
+          if ((v.nextB = v.p.nextBinding()) == null)
+          {
+            v.k++;
+            v.stage = InternalVars.NEXT_BRANCH;
+            break;
+          }
+
+          //-- Merge the two bindings.
+          Term.merge(v.nextB, v.binding);
+
+          //-- Store the current control rules in case of a backtrack.
+          v.rules = state.getControlRules();
+
+          //-- Replace the decomposed task in the task network with its
+          //-- decomposition according to this branch of this method. This
+          //-- makes a new task network, and leaves the task network of this
+          //-- frame as it was.
+          TaskNetwork d = v.m[v.j].decompose(state, v.k, v.nextB);
+          TaskNetwork next = v.t0.replace(v.tasks, d);
+
+          //-- Push a new frame to achieve the remaining tasks, but make it
+          //-- choose its next tasks to achieve to be the substasks of the task
+          //-- we just decomposed, till an operator is seen and applied, or
+          //-- this whole task is achieved without seeing an operator (i.e.,
+          //-- this task was decomposed to an empty task list, in which case
+          //-- there is nothing to choose from). Again, this is not done at the
+          //-- level below which the search tree is being split.
+          v.stage = InternalVars.METHOD_APPLIED;
+
+          if (optimal && isPruned(next))
+            break;
+
+          if (isOutOfBudget())
+            return false;
+
+          int[] chosen = (d.size() == 0) ? null : v.t0.position();
+
+          if (branches != null && top + 1 == parallelLevels)
+            branches.add(split(next, chosen));
+          else
+            v = push(++top, next, chosen);
+          break;
+
+        case InternalVars.METHOD_APPLIED:
+          //-- The further branches of this method must NOT be considered even
+          //-- if this branch fails because there has been at least one
+          //-- satisfier for this branch of the method. Set this variable to
+          //-- true to prevent the further branches of this method from being
+          //-- considered.
+          v.found = true;
+
+          //-- Undo the changes in the control rules, because this particular
+          //-- decomposition failed.
+          state.undo(v.rules);
+          v.stage = InternalVars.NEXT_METHOD_BINDING;
+          break;
+      }
+    }
+  }
+
+  /** To search a branch of a parallel search, starting from the state of the
+   *  world, task network and plan this planner was given when the branch was
+   *  split off.
+   *
+   *  @param tasksIn
+   *          the task network to start with.
+   *  @param chosen
+   *          the position, in the task network, of the task network to choose
+   *          the first task atom to achieve from, or <code>null</code> for the
+   *          whole task network.
+   *  @return
+   *          the plans found in the branch.
+  */
+  LinkedList<Plan> search(TaskNetwork tasksIn, int[] chosen)
+  {
+    current.set(this);
+
+    plans = new LinkedList<Plan>();
+    findPlanHelper(tasksIn, chosen);
+
+    return plans;
+  }
+
+  /** To make this planner the current planner of the calling thread without
+   *  looking for plans, e.g., to print plans found by this planner in another
+   *  thread.
+  */
+  public void setCurrent()
+  {
+    current.set(this);
+  }
+
+  /** To set whether or not only distinct plans are returned. Different
+   *  decompositions of the task network may lead to the same sequence of
+   *  operator instances, which is then returned only once, the first time it
+   *  is found, and does not count towards the number of plans asked for.
+   *
+   *  @param distinctIn
+   *          whether or not to return only distinct plans.
+  */
+  public void setDistinctPlans(boolean distinctIn)
+  {
+    distinct = distinctIn;
+  }
+
+  /** To set the limits on the time and the number of nodes of the search tree
+   *  each search may use. A search that reaches either limit stops, and
+   *  returns the plans found so far (or, if this planner is looking for the
+   *  cheapest plan, the cheapest plan found so far). The state of the world is
+   *  then left as it was when the search stopped.
+   *
+   *  @param millis
+   *          the maximum time, in milliseconds, or 0 for no limit.
+   *  @param nodesIn
+   *          the maximum number of nodes (i.e., of decompositions and operator
+   *          applications), or 0 for no limit.
+  */
+  public void setLimits(long millis, long nodesIn)
+  {
+    timeLimit = millis;
+    nodeLimit = (nodesIn > 0) ? nodesIn : Long.MAX_VALUE;
+  }
+
+  /** To set the object to be told about the plans as soon as they are found.
+   *  In a parallel search that is not looking for the cheapest plan, the plans
+   *  found by a branch are told about when the branch is done.
+   *
+   *  @param listenerIn
+   *          the object, or <code>null</code> if no object is to be told.
+  */
+  public void setListener(PlanListener listenerIn)
+  {
+    listener = listenerIn;
+  }
+
+  /** To set the maximum number of task networks and states of the world for
+   *  which no plan could be found this planner remembers during a search, so
+   *  as not to search for plans for them again when they are reached again,
+   *  e.g., by achieving the subtasks of an unordered task list in a different
+   *  order. The least recently used ones are forgotten first. The task
+   *  networks are compared in full, and the control rules by the objects that
+   *  represent them, but the states of the world are identified by their hash
+   *  codes only, which are very unlikely, but not certain, to be different
+   *  for different ones.
+   *  <p>
+   *  This assumes that whether or not there is a plan depends only on which
+   *  atoms are in the state of the world, and not on the order in which they
+   *  were added. This is not the case in domains where the first satisfier of
+   *  a <code>:first</code> precondition, or the order of the satisfiers of a
+   *  <code>:sort-by</code> precondition with equal keys, matters.
+   *
+   *  @param limit
+   *          the maximum number, or 0 to remember none.
+  */
+  public void setNogoodLimit(int limit)
+  {
+    nogoodLimit = limit;
+  }
+
+  /** To set whether or not this planner looks for the cheapest plan. If it
+   *  does, it searches the whole search tree, except for the parts that can
+   *  not contain a plan cheaper than the cheapest plan found so far, and
+   *  returns only the cheapest plan (the first one found, if there are more
+   *  than one), regardless of the number of plans asked for. This assumes
+   *  that the costs of the operators are not negative.
+   *
+   *  @param optimalIn
+   *          whether or not to look for the cheapest plan.
+   *  @param boundIn
+   *          the lower bound on the cost of achieving the remaining tasks, to
+   *          prune the search tree further, or <code>null</code> if there is
+   *          no such bound.
+  */
+  public void setOptimal(boolean optimalIn, CostBound boundIn)
+  {
+    optimal = optimalIn;
+    bound = boundIn;
+  }
+
+  /** To set whether or not this planner searches in parallel. In a parallel
+   *  search, the search tree is split at a given level into branches, each of
+   *  which is searched by a planner of its own, starting from copies of the
+   *  state of the world, the task network and the current plan. The state of
+   *  the world of this planner is left as it was before the search.
+   *  <p>
+   *  In a deterministic parallel search, the plans returned are the same,
+   *  and in the same order, as those the sequential search would return.
+   *  Otherwise, the plans that are found first are returned.
+   *
+   *  @param poolIn
+   *          the pool in which the branches are searched, or <code>null</code>
+   *          to search sequentially.
+   *  @param levels
+   *          the number of levels of the search tree (i.e., of decompositions
+   *          and operator applications) above the branches.
+   *  @param deterministicIn
+   *          whether or not the search must be deterministic.
+  */
+  public void setParallel(ForkJoinPool poolIn, int levels,
+                          boolean deterministicIn)
+  {
+    pool = poolIn;
+    parallelLevels = levels;
+    deterministic = deterministicIn;
+  }
+
+  /** To add to the number of nodes of the search tree expanded so far, and to
+   *  stop the search if it has run out of time or nodes.
+   *
+   *  @param n
+   *          the number of nodes to add.
+   *  @return
+   *          <code>true</code> if the search has run out of time or nodes,
+   *          <code>false</code> otherwise.
+  */
+  private synchronized boolean spend(long n)
+  {
+    nodes += n;
+
+    if (!stopped && (nodes >= nodeLimit ||
+                     System.currentTimeMillis() >= deadline))
+    {
+      stopped = true;
+      cancelled = true;
+
+      if (searched != null)
+        cancelBranches(0);
+    }
+
+    return stopped;
+  }
+
+  /** To split off a branch of the search tree. The task network need not be
+   *  copied, since it never changes.
+   *
+   *  @param tasksIn
+   *          the task network the branch starts with.
+   *  @param chosen
+   *          the position, in the task network, of the task network the branch
+   *          chooses the first task atom to achieve from, or <code>null</code>
+   *          for the whole task network.
+   *  @return
+   *          the branch.
+  */
+  private SearchBranch split(TaskNetwork tasksIn, int[] chosen)
+  {
+    Planner p = new Planner(domain, (State)state.clone());
+    p.tasks = tasksIn;
+    p.currentPlan = (Plan)currentPlan.clone();
+    p.planNo = planNo;
+    p.optimal = optimal;
+    p.bound = bound;
+    p.root = root;
+    p.branchIndex = branches.size();
+    p.deadline = deadline;
+    p.nodeLimit = nodeLimit;
+    p.nogoods = newNogoods(nogoodLimit);
+    p.seen = distinct ? new HashSet<Plan>() : null;
+
+    return new SearchBranch(this, p, tasksIn, chosen);
+  }
+
+  /** To get this planner ready to look for plans for a given initial task
+   *  list. This planner becomes the current planner of the calling thread.
+   *
+   *  @param tasksIn
+   *          the initial task list to be achieved.
+   *  @param planNoIn
+   *          the maximum number of plans to be returned.
+   *  @return
+   *          <code>false</code> if the initial state of the world does not
+   *          satisfy the control rules, and there can be no plans,
+   *          <code>true</code> otherwise.
+  */
+  private boolean start(TaskList tasksIn, int planNoIn)
+  {
+    current.set(this);
+    nodes = 0;
+    deadline = (timeLimit > 0) ? System.currentTimeMillis() + timeLimit
+                               : Long.MAX_VALUE;
+
+    root = this;
+    branchIndex = 0;
+    bestPlan = null;
+    bestCost = Double.POSITIVE_INFINITY;
+    nogoods = newNogoods(nogoodLimit);
+    plansFound = 0;
+    seen = distinct ? new HashSet<Plan>() : null;
+
+    //-- Initialize the plan list to an empty one.
+    plans = new LinkedList<Plan>();
+
+    //-- Add the domain rules to the state's rules.
+    state.addControlRule(domain.getControlRules());
+
+    if (!state.progress())
+      return false;
+
+    //-- Initialize the current plan to an empty one.
+    currentPlan = new Plan();
+
+    //-- Initialize the task network to be achieved.
+    tasks = TaskNetwork.of(tasksIn);
+
+    planNo = planNoIn;
+
+    return true;
+  }
+
+  /** To return a stream of the plans for a given initial task list. The plans
+   *  are found one at a time, as they are needed, as with
+   *  <code>iteratePlans</code>.
+   *
+   *  @param tasksIn
+   *          the initial task list to be achieved.
+   *  @return
+   *          the stream.
+  */
+  public Stream<Plan> streamPlans(TaskList tasksIn)
+  {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+      iteratePlans(tasksIn), Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /** To find plan(s) for a given initial task list asynchronously. The search
+   *  is done by a given executor, and the returned future completes with the
+   *  plans found when the search is over. Cancelling the future cancels the
+   *  search.
+   *
+   *  @param executor
+   *          the executor to do the search.
+   *  @param tasksIn
+   *          the initial task list to be achieved.
+   *  @param planNoIn
+   *          the maximum number of plans to be returned.
+   *  @return
+   *          the future.
+  */
+  public Future<LinkedList<Plan>> submit(Executor executor,
+                                         final TaskList tasksIn,
+                                         final int planNoIn)
+  {
+    //-- The flags are cleared here rather than when the search starts, so
+    //-- that the search is given up even if the future is cancelled after it
+    //-- has been handed to the executor but before the search has started.
+    clearCancelled();
+
+    FutureTask<LinkedList<Plan>> f = new FutureTask<LinkedList<Plan>>(
+      new Callable<LinkedList<Plan>>()
+      {
+        public LinkedList<Plan> call()
+        {
+          return solve(tasksIn, planNoIn);
+        }
+      })
+    {
+      public boolean cancel(boolean mayInterruptIfRunning)
+      {
+        //-- A future that is already done has no search left to give up, and
+        //-- this planner may be doing another search by now.
+        if (!super.cancel(mayInterruptIfRunning))
+          return false;
+
+        Planner.this.cancel();
+
+        return true;
+      }
+    };
+
+    executor.execute(f);
+
+    return f;
+  }
+}
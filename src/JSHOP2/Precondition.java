@@ -1,8 +1,6 @@
 package JSHOP2;
 
-import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Vector;
 
 /** This abstract class represents an iterator over all the possible bindings
  *  that can satisfy its corresponding logical expression at run time.
@@ -14,15 +12,10 @@ import java.util.Vector;
 public abstract class Precondition
 {
 
-  /** The array that stores the sorted satisfiers for this logical precondition
-   *  if this is a <code>:sort-by</code> logical precondition.
+  /** The satisfiers for this logical precondition not returned yet, if this
+   *  is a <code>:sort-by</code> logical precondition.
   */
-  Object[] bindings;
-
-  /** The index pointing to the next satisfier to be returned in case this is a
-   *  <code>:sort-by</code> logical precondition.
-  */
-  int bindingsIdx;
+  private BindingHeap bindings;
 
   /** The function to be used to sort the possible bindings if this is a
    *  <code>:sort-by</code> logical precondition.
@@ -46,6 +39,18 @@ public abstract class Precondition
   */
   public abstract void bind(Term[] binding);
 
+  /** Whether or not the order of the satisfiers of this logical precondition
+   *  matters, i.e., it is marked <code>:first</code> or <code>:sort-by</code>.
+   *
+   *  @return
+   *          <code>true</code> if the order matters, <code>false</code>
+   *          otherwise.
+  */
+  boolean isOrderFixed()
+  {
+    return (first || comp != null);
+  }
+
   /** This function returns the next satisfier for this logical expression.
    *
    *  @return
@@ -65,38 +70,29 @@ public abstract class Precondition
     if (comp != null)
     {
       //-- If this is the first call to this function, calculate all the
-      //-- bindings first, and sort them using the given function.
+      //-- bindings first. They are sorted only as far as they are asked for.
       if (firstCall)
       {
-        //-- A vector to store all the possible bindings that satisfy this
-        //-- logical precondition.
-        Vector v = new Vector();
+        if (bindings == null)
+          bindings = new BindingHeap(comp);
+        else
+          bindings.clear();
 
         //-- The next possible binding.
         Term[] b;
 
         //-- Iterate over all the possible bindings.
         while ((b = nextBindingHelper()) != null)
-          v.add(b);
-
-        //-- Sort the bindings.
-        bindings = v.toArray();
-        Arrays.sort(bindings, comp);
-
-        //-- Set the index to zero.
-        bindingsIdx = 0;
+          bindings.add(b);
       }
 
       //-- Make sure next time this function will remember that it has been
       //-- called before.
       firstCall = false;
 
-      //-- If all the possible bindings have been returned, return null.
-      if (bindingsIdx == bindings.length)
-        return null;
-
-      //-- Return the next binding in the sorted list of satisfiers.
-      return (Term[])bindings[bindingsIdx++];
+      //-- Return the next binding in the sorted order of satisfiers, or null
+      //-- if all the possible bindings have been returned.
+      return bindings.poll();
     }
 
     //-- Make sure next time this function will remember that it has been
@@ -143,6 +139,7 @@ public abstract class Precondition
   public Precondition setComparator(Comparator compIn)
   {
     comp = compIn;
+    bindings = null;
 
     return this;
   }
@@ -157,4 +154,14 @@ public abstract class Precondition
   {
     first = firstIn;
   }
+
+  /** This abstract function makes this logical precondition represent its
+   *  logical expression under another unifier, as if it had been made with
+   *  that unifier, so that it can be used again rather than made anew. It
+   *  must be reset before it is used.
+   *
+   *  @param unifier
+   *          the new unifier.
+  */
+  public abstract void setUnifier(Term[] unifier);
 }
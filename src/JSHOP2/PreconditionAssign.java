@@ -15,6 +15,11 @@ public class PreconditionAssign extends Precondition
   */
   private Term boundT;
 
+  /** The term this assignment logical expression represents, before the
+   *  unifier is applied to it.
+  */
+  private Term original;
+
   /** The array this object will return as its next binding.
   */
   private Term[] retVal;
@@ -45,6 +50,7 @@ public class PreconditionAssign extends Precondition
     //-- pretend that this assignment logical expression is marked ':first'.
     setFirst(true);
 
+    original = termIn;
     term = termIn.bind(unifier);
 
     //-- Initially, this object is not binding any variable, so set all the
@@ -80,4 +86,16 @@ public class PreconditionAssign extends Precondition
     //-- Undo the bindings.
     boundT = term;
   }
+
+  /** To apply another unifier to the term this assignment logical expression
+   *  represents.
+  */
+  public void setUnifier(Term[] unifier)
+  {
+    term = original.bind(unifier);
+
+    //-- The binding returned before might have been added to since.
+    for (int i = 0; i < retVal.length; i++)
+      retVal[i] = null;
+  }
 }
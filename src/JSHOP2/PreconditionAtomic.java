@@ -19,11 +19,26 @@ public class PreconditionAtomic extends Precondition
   */
   private MyIterator e;
 
+  /** The binding frame the iterator looks for unifiers in, which is kept from
+   *  one reset to the next.
+  */
+  private BindingFrame frame;
+
+  /** The predicate this atomic logical expression represents, before the
+   *  unifier is applied to it.
+  */
+  private Predicate original;
+
   /** The predicate this atomic logical expression represents, without any
    *  subsequent bindings applied to it.
   */
   private Predicate p;
 
+  /** The state of the world this atomic logical expression is being satisfied
+   *  in, i.e., the state of the current planner at the time it was last reset.
+  */
+  private State s;
+
   /** To initialize this atomic logical expression.
    *
    *  @param pIn
@@ -37,6 +52,7 @@ public class PreconditionAtomic extends Precondition
     //-- once, so the default for the 'isFirstCall' flag is false.
     setFirst(false);
 
+    original = pIn;
     p = pIn.applySubstitution(unifier);
   }
 
@@ -47,11 +63,22 @@ public class PreconditionAtomic extends Precondition
     boundP = boundP.applySubstitution(binding);
   }
 
+  /** To get the predicate this atomic logical expression represents, without
+   *  any subsequent bindings applied to it.
+   *
+   *  @return
+   *          the predicate.
+  */
+  Predicate getPredicate()
+  {
+    return p;
+  }
+
   /** To return the next satisfier for this atomic logical expression.
   */
   protected Term[] nextBindingHelper()
   {
-    return JSHOP2.getState().nextBinding(boundP, e);
+    return s.nextBinding(boundP, e);
   }
 
   /** To reset this atomic logical expression.
@@ -59,9 +86,23 @@ public class PreconditionAtomic extends Precondition
   protected void resetHelper()
   {
     //-- Reset the iterator.
-    e = JSHOP2.getState().iterator(p.getHead());
+    s = JSHOP2.getState();
+    e = s.iterator(p.getHead());
+
+    if (frame == null)
+      frame = new BindingFrame(p.getVarCount());
+
+    e.frame = frame;
 
     //-- Forget all the subsequent bindings.
     boundP = p;
   }
+
+  /** To apply another unifier to the predicate this atomic logical expression
+   *  represents.
+  */
+  public void setUnifier(Term[] unifier)
+  {
+    p = original.applySubstitution(unifier);
+  }
 }
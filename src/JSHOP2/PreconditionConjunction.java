@@ -0,0 +1,415 @@
+package JSHOP2;
+
+/** This class represents an iterator over all the possible bindings that can
+ *  satisfy a conjunction at run time. The conjuncts are tried one after the
+ *  other: the satisfiers of each conjunct are found under the bindings found
+ *  for the conjuncts tried before it, as in the classes produced for the
+ *  other conjunctions.
+ *  <p>
+ *  If the state of the world asks for it, each run of consecutive atomic
+ *  conjuncts whose arguments have no call terms, and which can not be proved
+ *  by axioms, is tried in the order in which the fewest atoms are expected to
+ *  be looked at, which is chosen anew every time this conjunction is reset.
+ *  The satisfiers are the same in any order, but they may be found in a
+ *  different order, so conjunctions marked <code>:first</code> or
+ *  <code>:sort-by</code> are never reordered.
+ *  <p>
+ *  Each such conjunct is looked at again for every binding of the conjuncts
+ *  tried before it. Once the atoms looked at that way are expected to be as
+ *  many as those that satisfy it under no binding at all, and if those are
+ *  many enough, its satisfiers are found by a hash join instead, which does
+ *  not change the order in which they are found.
+ *
+ *  @version 1.0.3
+*/
+public class PreconditionConjunction extends Precondition
+{
+  /** The bindings found for the conjuncts, in the order they are tried.
+  */
+  private Term[][] b;
+
+  /** The variables that are bound by the conjuncts chosen so far, while the
+   *  order of the conjuncts is being chosen.
+  */
+  private boolean[] bound;
+
+  /** The indexes of the conjuncts, in the order they are tried.
+  */
+  private int[] order;
+
+  /** The conjuncts, in the order they were written in.
+  */
+  private Precondition[] p;
+
+  /** The iterators used to find the satisfiers of the conjuncts, in the order
+   *  they are tried: either the conjuncts themselves or hash joins over them.
+  */
+  private Precondition[] q;
+
+  /** Whether or not there is a run of at least two consecutive atomic
+   *  conjuncts whose arguments have no call terms.
+  */
+  private boolean reorderable;
+
+  /** The state of the world this conjunction is being satisfied in, i.e., the
+   *  state of the current planner at the time it was last reset.
+  */
+  private State s;
+
+  /** For each position in the order the conjuncts are tried, the expected
+   *  number of satisfiers of the conjunct there under no binding, i.e., the
+   *  cost of building a hash join for it, 0 if it is not known yet, or -1 if
+   *  no hash join is to be built for it.
+  */
+  private int[] scan;
+
+  /** For each atomic conjunct whose arguments have no call terms, the
+   *  variables in it, indexed by the indexes of the variable symbols.
+   *  <code>null</code> for the other conjuncts.
+  */
+  private boolean[][] vars;
+
+  /** For each position in the order the conjuncts are tried, the expected
+   *  number of atoms looked at so far to find the satisfiers of the conjunct
+   *  there since this conjunction was last reset.
+  */
+  private int[] work;
+
+  /** To initialize this conjunction.
+   *
+   *  @param pIn
+   *          the conjuncts, in the order they were written in. There must be
+   *          at least two of them.
+  */
+  public PreconditionConjunction(Precondition[] pIn)
+  {
+    p = pIn;
+    b = new Term[p.length][];
+    order = new int[p.length];
+    q = new Precondition[p.length];
+    scan = new int[p.length];
+    vars = new boolean[p.length][];
+    work = new int[p.length];
+
+    for (int i = 0; i < p.length; i++)
+      order[i] = i;
+
+    bound = new boolean[findConjunctVars()];
+
+    //-- A conjunction can be potentially satisfied more than once, so the
+    //-- default for the 'isFirstCall' flag is false.
+    setFirst(false);
+  }
+
+  /** To find the next binding for the conjunct at a given position in the
+   *  order the conjuncts are tried, going back to the conjuncts before it if
+   *  it has no more satisfiers under the bindings found for them.
+   *
+   *  @param j
+   *          the position.
+   *  @return
+   *          <code>true</code> if a binding was found, <code>false</code> if
+   *          there are no more bindings for the conjuncts up to and including
+   *          this one.
+  */
+  private boolean advance(int j)
+  {
+    b[j] = q[j].nextBinding();
+
+    while (b[j] == null)
+    {
+      if (j == 0 || !advance(j - 1))
+        return false;
+
+      Term[] binding = (j == 1) ? b[0] : Term.merge(b, j);
+
+      chooseJoin(j, binding);
+      q[j].reset();
+      q[j].bind(binding);
+      b[j] = q[j].nextBinding();
+    }
+
+    return true;
+  }
+
+  /** To bind the conjunction to some binding.
+  */
+  public void bind(Term[] binding)
+  {
+    for (int i = 0; i < p.length; i++)
+      p[i].bind(binding);
+  }
+
+  /** To choose whether or not the satisfiers of the conjunct at a given
+   *  position in the order the conjuncts are tried are to be found by a hash
+   *  join from now on, before it is bound to a given binding.
+   *
+   *  @param j
+   *          the position.
+   *  @param binding
+   *          the binding.
+  */
+  private void chooseJoin(int j, Term[] binding)
+  {
+    if (q[j] != p[order[j]] || scan[j] < 0)
+      return;
+
+    if (scan[j] == 0)
+    {
+      int threshold = s.getJoinThreshold();
+
+      if (threshold <= 0 || !isMovable(s, order[j]))
+      {
+        scan[j] = -1;
+        return;
+      }
+
+      for (int k = 0; k < bound.length; k++)
+        bound[k] = false;
+
+      scan[j] = s.estimate(((PreconditionAtomic)p[order[j]]).getPredicate(),
+                           bound);
+
+      if (scan[j] < threshold)
+      {
+        scan[j] = -1;
+        return;
+      }
+    }
+
+    for (int k = 0; k < bound.length; k++)
+      bound[k] = (binding[k] != null);
+
+    work[j] += s.estimate(((PreconditionAtomic)p[order[j]]).getPredicate(),
+                          bound);
+
+    if (work[j] >= scan[j])
+      q[j] = new PreconditionHashJoin((PreconditionAtomic)p[order[j]],
+                                      vars[order[j]]);
+  }
+
+  /** To choose the order in which the conjuncts are tried in a given state of
+   *  the world. In each run of conjuncts that can be reordered, the conjunct
+   *  with the fewest expected satisfiers, given the variables bound by the
+   *  conjuncts of the run chosen before it, is chosen next. Ties are broken
+   *  in favor of the conjunct written first.
+   *
+   *  @param s
+   *          the state of the world.
+  */
+  private void chooseOrder(State s)
+  {
+    int i = 0;
+
+    while (i < p.length)
+    {
+      //-- The conjuncts that can not be reordered stay where they are.
+      if (!isMovable(s, i))
+      {
+        order[i] = i;
+        i++;
+        continue;
+      }
+
+      //-- Find the end of this run of conjuncts.
+      int end = i + 1;
+
+      while (end < p.length && isMovable(s, end))
+        end++;
+
+      for (int k = 0; k < bound.length; k++)
+        bound[k] = false;
+
+      for (int k = i; k < end; k++)
+        order[k] = k;
+
+      for (int k = i; k < end; k++)
+      {
+        //-- The conjunct with the fewest expected satisfiers among those not
+        //-- chosen yet.
+        int best = k;
+        int bestCount = Integer.MAX_VALUE;
+
+        for (int l = k; l < end; l++)
+        {
+          int count = s.estimate(
+            ((PreconditionAtomic)p[order[l]]).getPredicate(), bound);
+
+          if (count < bestCount ||
+              (count == bestCount && order[l] < order[best]))
+          {
+            best = l;
+            bestCount = count;
+          }
+        }
+
+        int chosen = order[best];
+        System.arraycopy(order, k, order, k + 1, best - k);
+        order[k] = chosen;
+
+        for (int v = 0; v < vars[chosen].length; v++)
+          bound[v] |= vars[chosen][v];
+      }
+
+      i = end;
+    }
+  }
+
+  /** To find the variables in each atomic conjunct whose arguments have no
+   *  call terms, and whether or not there is a run of at least two such
+   *  conjuncts.
+   *
+   *  @return
+   *          the number of variables, i.e., the length of the bindings.
+  */
+  private int findConjunctVars()
+  {
+    int varCount = 0;
+
+    reorderable = false;
+
+    for (int i = 0; i < p.length; i++)
+    {
+      if (!(p[i] instanceof PreconditionAtomic))
+        continue;
+
+      Predicate pred = ((PreconditionAtomic)p[i]).getPredicate();
+
+      if (pred.isVar())
+      {
+        vars[i] = null;
+        continue;
+      }
+
+      //-- Use the array from before if there is one.
+      if (vars[i] == null || vars[i].length != pred.getVarCount())
+        vars[i] = new boolean[pred.getVarCount()];
+      else
+        for (int k = 0; k < vars[i].length; k++)
+          vars[i][k] = false;
+
+      varCount = Math.max(varCount, vars[i].length);
+
+      if (!findVars(pred.getParam(), vars[i]))
+        vars[i] = null;
+      else if (i > 0 && vars[i - 1] != null)
+        reorderable = true;
+    }
+
+    return varCount;
+  }
+
+  /** To find the variables in a term.
+   *
+   *  @param t
+   *          the term.
+   *  @param found
+   *          the variables found so far, indexed by the indexes of the
+   *          variable symbols.
+   *  @return
+   *          <code>false</code> if the term has a call term in it,
+   *          <code>true</code> otherwise.
+  */
+  private static boolean findVars(Term t, boolean[] found)
+  {
+    if (t instanceof TermVariable)
+      found[((TermVariable)t).getIndex()] = true;
+    else if (t instanceof TermCall)
+      return false;
+    else if (t instanceof TermList && !t.isNil())
+    {
+      List l = ((TermList)t).getList();
+
+      return (findVars(l.getHead(), found) && findVars(l.getTail(), found));
+    }
+
+    return true;
+  }
+
+  /** Whether or not a given conjunct can be reordered in a given state of the
+   *  world. The satisfiers of a predicate that can be proved by axioms may
+   *  depend on which of its variables are already bound, so such a conjunct
+   *  is never moved.
+   *
+   *  @param s
+   *          the state of the world.
+   *  @param i
+   *          the index of the conjunct.
+   *  @return
+   *          <code>true</code> if the conjunct can be reordered,
+   *          <code>false</code> otherwise.
+  */
+  private boolean isMovable(State s, int i)
+  {
+    if (vars[i] == null)
+      return false;
+
+    return !s.isDerived(((PreconditionAtomic)p[i]).getPredicate().getHead());
+  }
+
+  /** To return the next satisfier for this conjunction.
+  */
+  protected Term[] nextBindingHelper()
+  {
+    if (b[0] == null)
+      return null;
+
+    if (!advance(p.length - 1))
+      return null;
+
+    return Term.merge(b, p.length);
+  }
+
+  /** To reset this conjunction, and to find the bindings for all the
+   *  conjuncts but the last one tried.
+  */
+  protected void resetHelper()
+  {
+    for (int i = 0; i < p.length; i++)
+      p[i].reset();
+
+    //-- Choose the order in which the conjuncts are tried.
+    s = JSHOP2.getState();
+
+    if (reorderable && !isOrderFixed() && s != null && s.reordersConjuncts())
+      chooseOrder(s);
+    else
+      for (int i = 0; i < p.length; i++)
+        order[i] = i;
+
+    //-- Start with the conjuncts themselves. Any hash joins built before might
+    //-- be out of date.
+    for (int j = 0; j < p.length; j++)
+    {
+      q[j] = p[order[j]];
+      scan[j] = (s == null) ? -1 : 0;
+      work[j] = 0;
+    }
+
+    b[0] = q[0].nextBinding();
+
+    if (b[0] == null)
+      return;
+
+    q[1].bind(b[0]);
+
+    for (int j = 1; j < p.length - 1; j++)
+    {
+      if (!advance(j))
+        return;
+
+      q[j + 1].bind(Term.merge(b, j + 1));
+    }
+  }
+
+  /** To apply another unifier to all the conjuncts.
+  */
+  public void setUnifier(Term[] unifier)
+  {
+    for (int i = 0; i < p.length; i++)
+      p[i].setUnifier(unifier);
+
+    //-- The unifier might have bound some of the variables of the conjuncts.
+    findConjunctVars();
+  }
+}
@@ -115,4 +115,17 @@ public class PreconditionForAll extends Precondition
     for (int i = 0; i < currentBinding.length; i++)
       currentBinding[i] = null;
   }
+
+  /** To apply another unifier to the premise and the consequence of the
+   *  <code>ForAll</code> logical expression this object represents.
+  */
+  public void setUnifier(Term[] unifier)
+  {
+    premise.setUnifier(unifier);
+    consequence.setUnifier(unifier);
+
+    //-- The binding returned before might have been added to since.
+    for (int i = 0; i < retVal.length; i++)
+      retVal[i] = null;
+  }
 }
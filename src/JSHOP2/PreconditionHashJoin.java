@@ -0,0 +1,266 @@
+package JSHOP2;
+
+/** This class represents an iterator over all the possible bindings that can
+ *  satisfy an atomic logical expression at run time, found by a hash join
+ *  rather than by looking at the atoms again every time the expression is
+ *  bound. The first time it is bound, all the satisfiers of the expression
+ *  are found and put in a hash table, keyed by the arguments of the variables
+ *  that binding binds. After that, the satisfiers under each binding that
+ *  binds the same variables are looked up in that table, and they are found
+ *  in the same order the atomic logical expression itself would find them.
+ *  <p>
+ *  The table reflects the state of the world at the time it was built, so an
+ *  object of this class must be made anew whenever the state of the world
+ *  might have changed for good, i.e., every time the conjunction it belongs
+ *  to is reset. It must be bound once after every time it is reset.
+ *
+ *  @version 1.0.3
+*/
+public class PreconditionHashJoin extends Precondition
+{
+  /** The bucket of the satisfiers under the latest binding, or
+   *  <code>null</code> if there are none.
+  */
+  private JoinBucket bucket;
+
+  /** The number of buckets in the hash table.
+  */
+  private int count;
+
+  /** Whether or not the satisfiers under the latest binding are found by the
+   *  atomic logical expression itself, because that binding does not bind the
+   *  same variables as the one the hash table was built for.
+  */
+  private boolean direct;
+
+  /** Whether or not the variables of the atomic logical expression are bound
+   *  by the binding the hash table was built for, indexed by the indexes of
+   *  the variable symbols.
+  */
+  private boolean[] isKey;
+
+  /** The indexes of the variables the hash table is keyed by.
+  */
+  private int[] keys;
+
+  /** The index of the next satisfier to be returned in the current bucket.
+  */
+  private int next;
+
+  /** The atomic logical expression this object finds the satisfiers of.
+  */
+  private PreconditionAtomic p;
+
+  /** The hash chains of the hash table, or <code>null</code> if it has not
+   *  been built yet. The length of this array is always a power of two.
+  */
+  private JoinBucket[] table;
+
+  /** The variables in the atomic logical expression, indexed by the indexes
+   *  of the variable symbols.
+  */
+  private boolean[] vars;
+
+  /** To initialize this hash join.
+   *
+   *  @param pIn
+   *          the atomic logical expression. It must have no call terms in its
+   *          arguments, and it must not be possible to prove it by axioms.
+   *  @param varsIn
+   *          the variables in the atomic logical expression, indexed by the
+   *          indexes of the variable symbols.
+  */
+  public PreconditionHashJoin(PreconditionAtomic pIn, boolean[] varsIn)
+  {
+    p = pIn;
+    vars = varsIn;
+
+    //-- An atomic logical expression can be potentially satisfied more than
+    //-- once, so the default for the 'isFirstCall' flag is false.
+    setFirst(false);
+  }
+
+  /** To bind this hash join to some binding, building the hash table if it
+   *  has not been built yet.
+  */
+  public void bind(Term[] binding)
+  {
+    if (table == null)
+      build(binding);
+
+    //-- A binding that does not bind the variables the table is keyed by can
+    //-- not be looked up in it.
+    for (int i = 0; i < vars.length; i++)
+      if (vars[i] && isKey[i] != (binding[i] != null && binding[i].isGround()))
+      {
+        direct = true;
+        p.reset();
+        p.bind(binding);
+        return;
+      }
+
+    int hash = hash(binding);
+
+    for (bucket = table[hash & (table.length - 1)]; bucket != null;
+         bucket = bucket.chain)
+      if (bucket.hash == hash && matches(bucket.key, binding))
+        return;
+  }
+
+  /** To find all the satisfiers of the atomic logical expression, and to put
+   *  them in the hash table.
+   *
+   *  @param binding
+   *          the binding whose variables the hash table is keyed by.
+  */
+  private void build(Term[] binding)
+  {
+    isKey = new boolean[vars.length];
+    int keyCount = 0;
+
+    for (int i = 0; i < vars.length; i++)
+      if (vars[i] && binding[i] != null && binding[i].isGround())
+      {
+        isKey[i] = true;
+        keyCount++;
+      }
+
+    keys = new int[keyCount];
+
+    for (int i = 0, k = 0; i < vars.length; i++)
+      if (isKey[i])
+        keys[k++] = i;
+
+    table = new JoinBucket[8];
+
+    p.reset();
+
+    Term[] satisfier;
+
+    while ((satisfier = p.nextBinding()) != null)
+    {
+      JoinBucket b = find(satisfier);
+
+      //-- The variables the table is keyed by are already bound when the
+      //-- satisfier is looked up, so, as with the atomic logical expression
+      //-- itself, they are left out of it.
+      for (int k = 0; k < keys.length; k++)
+        satisfier[keys[k]] = null;
+
+      b.add(satisfier);
+    }
+  }
+
+  /** To find the bucket of the satisfiers with the same arguments as a given
+   *  satisfier for the variables the hash table is keyed by, creating an
+   *  empty one if there is none.
+   *
+   *  @param satisfier
+   *          the satisfier.
+   *  @return
+   *          the bucket.
+  */
+  private JoinBucket find(Term[] satisfier)
+  {
+    int hash = hash(satisfier);
+
+    for (JoinBucket b = table[hash & (table.length - 1)]; b != null;
+         b = b.chain)
+      if (b.hash == hash && matches(b.key, satisfier))
+        return b;
+
+    if (++count > table.length - (table.length >> 2))
+    {
+      //-- Double the number of hash chains.
+      JoinBucket[] old = table;
+      table = new JoinBucket[old.length << 1];
+
+      for (int i = 0; i < old.length; i++)
+      {
+        JoinBucket next;
+
+        for (JoinBucket b = old[i]; b != null; b = next)
+        {
+          next = b.chain;
+          b.chain = table[b.hash & (table.length - 1)];
+          table[b.hash & (table.length - 1)] = b;
+        }
+      }
+    }
+
+    JoinBucket b = new JoinBucket(hash, satisfier.clone());
+    b.chain = table[hash & (table.length - 1)];
+    table[hash & (table.length - 1)] = b;
+
+    return b;
+  }
+
+  /** To calculate the hash code of the arguments of the variables the hash
+   *  table is keyed by in a given binding.
+   *
+   *  @param binding
+   *          the binding.
+   *  @return
+   *          the hash code.
+  */
+  private int hash(Term[] binding)
+  {
+    int hash = 0;
+
+    for (int k = 0; k < keys.length; k++)
+      hash = 31 * hash + binding[keys[k]].hashCode();
+
+    return hash ^ (hash >>> 16);
+  }
+
+  /** Whether or not two bindings have the same arguments for the variables
+   *  the hash table is keyed by.
+   *
+   *  @param b1
+   *          the first binding.
+   *  @param b2
+   *          the second binding.
+   *  @return
+   *          <code>true</code> if they have, <code>false</code> otherwise.
+  */
+  private boolean matches(Term[] b1, Term[] b2)
+  {
+    for (int k = 0; k < keys.length; k++)
+      if (!b1[keys[k]].equals(b2[keys[k]]))
+        return false;
+
+    return true;
+  }
+
+  /** To return the next satisfier for this hash join.
+  */
+  protected Term[] nextBindingHelper()
+  {
+    if (direct)
+      return p.nextBinding();
+
+    if (bucket == null || next == bucket.size)
+      return null;
+
+    return bucket.satisfiers[next++];
+  }
+
+  /** To reset this hash join. The hash table is kept.
+  */
+  protected void resetHelper()
+  {
+    bucket = null;
+    direct = false;
+    next = 0;
+  }
+
+  /** To apply another unifier to the atomic logical expression. The hash
+   *  table is built again the next time this hash join is bound.
+  */
+  public void setUnifier(Term[] unifier)
+  {
+    p.setUnifier(unifier);
+    count = 0;
+    table = null;
+  }
+}
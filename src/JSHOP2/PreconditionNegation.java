@@ -70,4 +70,16 @@ public class PreconditionNegation extends Precondition
     //-- represents.
     p.reset();
   }
+
+  /** To apply another unifier to the logical expression the negation of which
+   *  this object represents.
+  */
+  public void setUnifier(Term[] unifier)
+  {
+    p.setUnifier(unifier);
+
+    //-- The binding returned before might have been added to since.
+    for (int i = 0; i < retVal.length; i++)
+      retVal[i] = null;
+  }
 }
@@ -52,4 +52,14 @@ public class PreconditionNil extends Precondition
   protected void resetHelper()
   {
   }
+
+  /** To make this empty logical expression ready to be used again. It is the
+   *  same under any unifier.
+  */
+  public void setUnifier(Term[] unifier)
+  {
+    //-- The binding returned before might have been added to since.
+    for (int i = 0; i < retVal.length; i++)
+      retVal[i] = null;
+  }
 }
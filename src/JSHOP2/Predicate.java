@@ -136,6 +136,182 @@ public class Predicate extends CompileTimeObject
     return null;
   }
 
+  /** To find a unifier that unifies the argument list of an atom, given as a
+   *  row of constant symbol indexes, with the argument list of this
+   *  predicate.
+   *
+   *  @param row
+   *          the indexes of the constant symbols that are the arguments of the
+   *          atom.
+   *  @return
+   *          the binding that unifies the two argument lists in case they are
+   *          unifiable, <code>null</code> otherwise.
+  */
+  public Term[] findUnifier(int[] row)
+  {
+    if (isVar())
+      return findUnifier(TermTable.intern(row));
+
+    Term[] retVal = new Term[varCount];
+    Term t = param;
+
+    for (int k = 0; k < row.length; k++)
+    {
+      //-- The tail of the argument list of this predicate is a variable or a
+      //-- code call, so fall back to unifying the whole lists.
+      if (!(t instanceof TermList))
+        return findUnifier(TermTable.intern(row));
+
+      //-- The argument list of this predicate is too short.
+      if (t.isNil())
+        return null;
+
+      List l = ((TermList)t).getList();
+      Term arg = l.getHead();
+
+      if (arg instanceof TermConstant)
+      {
+        if (((TermConstant)arg).getIndex() != row[k])
+          return null;
+      }
+      else if (arg instanceof TermVariable)
+      {
+        if (!arg.findUnifier(TermConstant.getConstant(row[k]), retVal))
+          return null;
+      }
+      //-- Numbers and lists can not be unified with constant symbols.
+      else if (!(arg instanceof TermCall))
+        return null;
+      else
+        return findUnifier(TermTable.intern(row));
+
+      t = l.getTail();
+    }
+
+    if (t.isNil())
+      return retVal;
+
+    //-- Either the argument list of this predicate is too long, or it ends
+    //-- with something other than NIL.
+    if (t instanceof TermList)
+      return null;
+
+    return findUnifier(TermTable.intern(row));
+  }
+
+  /** To find a unifier that unifies the argument list of another predicate
+   *  with the argument list of this predicate, writing it into a binding
+   *  frame rather than into a new array.
+   *
+   *  @param t
+   *          the argument list of the other predicate.
+   *  @param f
+   *          the binding frame, which must be empty.
+   *  @return
+   *          <code>true</code> if the two argument lists are unifiable, in
+   *          which case the frame holds the unifier, <code>false</code>
+   *          otherwise, in which case the frame is left empty.
+  */
+  boolean findUnifier(Term t, BindingFrame f)
+  {
+    //-- If this predicate is a variable, just map the variable to the whole
+    //-- argument list and return.
+    if (isVar())
+      return f.bind(varIdx, t);
+
+    if (param.findUnifier(t, f))
+      return true;
+
+    f.undo();
+    return false;
+  }
+
+  /** To find a unifier that unifies the argument list of an atom, given as a
+   *  row of constant symbol indexes, with the argument list of this
+   *  predicate, writing it into a binding frame rather than into a new array.
+   *
+   *  @param row
+   *          the indexes of the constant symbols that are the arguments of the
+   *          atom.
+   *  @param f
+   *          the binding frame, which must be empty.
+   *  @return
+   *          <code>true</code> if the two argument lists are unifiable, in
+   *          which case the frame holds the unifier, <code>false</code>
+   *          otherwise, in which case the frame is left empty.
+  */
+  boolean findUnifier(int[] row, BindingFrame f)
+  {
+    if (isVar())
+      return findUnifier(TermTable.intern(row), f);
+
+    Term t = param;
+
+    for (int k = 0; k < row.length; k++)
+    {
+      //-- The tail of the argument list of this predicate is a variable or a
+      //-- code call, so fall back to unifying the whole lists.
+      if (!(t instanceof TermList))
+      {
+        f.undo();
+        return findUnifier(TermTable.intern(row), f);
+      }
+
+      //-- The argument list of this predicate is too short.
+      if (t.isNil())
+      {
+        f.undo();
+        return false;
+      }
+
+      List l = ((TermList)t).getList();
+      Term arg = l.getHead();
+
+      if (arg instanceof TermConstant)
+      {
+        if (((TermConstant)arg).getIndex() != row[k])
+        {
+          f.undo();
+          return false;
+        }
+      }
+      else if (arg instanceof TermVariable)
+      {
+        if (!f.bind(((TermVariable)arg).getIndex(),
+                    TermConstant.getConstant(row[k])))
+        {
+          f.undo();
+          return false;
+        }
+      }
+      //-- Numbers and lists can not be unified with constant symbols.
+      else if (!(arg instanceof TermCall))
+      {
+        f.undo();
+        return false;
+      }
+      else
+      {
+        f.undo();
+        return findUnifier(TermTable.intern(row), f);
+      }
+
+      t = l.getTail();
+    }
+
+    if (t.isNil())
+      return true;
+
+    f.undo();
+
+    //-- Either the argument list of this predicate is too long, or it ends
+    //-- with something other than NIL.
+    if (t instanceof TermList)
+      return false;
+
+    return findUnifier(TermTable.intern(row), f);
+  }
+
   /** To get the head of this predicate.
    *
    *  @return
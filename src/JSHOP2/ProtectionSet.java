@@ -0,0 +1,199 @@
+package JSHOP2;
+
+/** This class represents the protections in the current state of the world
+ *  on the predicates that share the same head, as a multiset: each protected
+ *  predicate is kept once, with the number of times it is protected. The
+ *  protections are found through a hash table keyed by the argument lists of
+ *  the predicates, so checking, adding and deleting a protection takes
+ *  constant time however many protections there are.
+ *
+ *  @version 1.0.3
+*/
+class ProtectionSet
+{
+  /** The number of protected predicates in this set.
+  */
+  private int size;
+
+  /** The hash chains, or <code>null</code> if nothing has been protected in
+   *  this set yet. The length of this array is always a power of two.
+  */
+  private NumberedPredicate[] table;
+
+  /** To protect a predicate once more.
+   *
+   *  @param p
+   *          the predicate.
+   *  @return
+   *          the number of times the predicate is protected now.
+  */
+  int add(Predicate p)
+  {
+    int hash = hash(p.getParam());
+    NumberedPredicate np = find(p, hash);
+
+    if (np != null)
+    {
+      np.inc();
+      return np.getNumber();
+    }
+
+    if (table == null)
+      table = new NumberedPredicate[8];
+    else if (size + 1 > table.length - (table.length >> 2))
+    {
+      //-- Double the number of hash chains.
+      NumberedPredicate[] old = table;
+      table = new NumberedPredicate[old.length << 1];
+
+      for (int i = 0; i < old.length; i++)
+      {
+        NumberedPredicate next;
+
+        for (NumberedPredicate e = old[i]; e != null; e = next)
+        {
+          next = e.chain;
+          e.chain = table[e.hash & (table.length - 1)];
+          table[e.hash & (table.length - 1)] = e;
+        }
+      }
+    }
+
+    np = new NumberedPredicate(p);
+    np.hash = hash;
+    np.chain = table[hash & (table.length - 1)];
+    table[hash & (table.length - 1)] = np;
+    size++;
+
+    return 1;
+  }
+
+  /** To remove all the protections from this set.
+  */
+  void clear()
+  {
+    table = null;
+    size = 0;
+  }
+
+  /** To make a copy of this set that can be changed independently of it.
+   *
+   *  @return
+   *          the copy.
+  */
+  ProtectionSet copy()
+  {
+    ProtectionSet retVal = new ProtectionSet();
+
+    if (table == null)
+      return retVal;
+
+    retVal.table = new NumberedPredicate[table.length];
+    retVal.size = size;
+
+    for (int i = 0; i < table.length; i++)
+      for (NumberedPredicate e = table[i]; e != null; e = e.chain)
+      {
+        NumberedPredicate c = new NumberedPredicate(
+          new Predicate(e.getHead(), 0, e.getParam()), e.getNumber());
+        c.hash = e.hash;
+        c.chain = retVal.table[i];
+        retVal.table[i] = c;
+      }
+
+    return retVal;
+  }
+
+  /** To get the number of times a predicate is protected.
+   *
+   *  @param p
+   *          the predicate.
+   *  @return
+   *          the number of times, 0 if it is not protected.
+  */
+  int count(Predicate p)
+  {
+    if (size == 0)
+      return 0;
+
+    NumberedPredicate np = find(p, hash(p.getParam()));
+
+    return (np == null) ? 0 : np.getNumber();
+  }
+
+  /** To find the entry of a predicate.
+   *
+   *  @param p
+   *          the predicate.
+   *  @param hash
+   *          the hash code of its argument list.
+   *  @return
+   *          the entry, or <code>null</code> if the predicate is not
+   *          protected.
+  */
+  private NumberedPredicate find(Predicate p, int hash)
+  {
+    if (table == null)
+      return null;
+
+    for (NumberedPredicate e = table[hash & (table.length - 1)]; e != null;
+         e = e.chain)
+      if (e.hash == hash && p.equals(e.getParam()))
+        return e;
+
+    return null;
+  }
+
+  /** To calculate the hash code of the argument list of a predicate.
+   *
+   *  @param param
+   *          the argument list.
+   *  @return
+   *          the hash code.
+  */
+  private static int hash(Term param)
+  {
+    int h = param.hashCode();
+
+    return h ^ (h >>> 16);
+  }
+
+  /** To delete one protection of a predicate.
+   *
+   *  @param p
+   *          the predicate.
+   *  @return
+   *          the number of times the predicate was protected before, 0 if it
+   *          was not protected, in which case nothing is deleted.
+  */
+  int remove(Predicate p)
+  {
+    if (size == 0)
+      return 0;
+
+    int hash = hash(p.getParam());
+    int i = hash & (table.length - 1);
+    NumberedPredicate prev = null;
+
+    for (NumberedPredicate e = table[i]; e != null; prev = e, e = e.chain)
+      if (e.hash == hash && p.equals(e.getParam()))
+      {
+        int number = e.getNumber();
+
+        //-- If the counter drops to zero, remove the protection completely.
+        if (!e.dec())
+        {
+          if (prev == null)
+            table[i] = e.chain;
+          else
+            prev.chain = e.chain;
+
+          size--;
+        }
+
+        return number;
+      }
+
+    return 0;
+  }
+}
@@ -0,0 +1,89 @@
+package JSHOP2;
+
+import java.util.LinkedList;
+import java.util.concurrent.RecursiveAction;
+
+/** Each object of this class represents a part of the search tree that is
+ *  searched in parallel with the other parts, by a planner of its own that
+ *  starts from copies of the state of the world, the task network and the
+ *  plan at the root of that part.
+ *
+ *  @version 1.0.3
+*/
+class SearchBranch extends RecursiveAction
+{
+  /** The position, in the task network, of the task network the planner of
+   *  this branch chooses the first task atom to achieve from, or
+   *  <code>null</code> for the whole task network.
+  */
+  private int[] chosen;
+
+  /** The position of this branch among the branches of the search tree, in
+   *  the order the sequential search would visit them.
+  */
+  int index;
+
+  /** The planner that split the search tree into branches.
+  */
+  private Planner parent;
+
+  /** The planner that searches this branch, or <code>null</code> if this
+   *  branch is a plan that was found while splitting the search tree.
+  */
+  Planner planner;
+
+  /** The plans found in this branch, in the order they were found.
+  */
+  LinkedList<Plan> plans;
+
+  /** The version of this class, which is serializable as every
+   *  <code>RecursiveAction</code> is.
+  */
+  private static final long serialVersionUID = 1L;
+
+  /** The task network the planner of this branch starts with.
+  */
+  private TaskNetwork tasks;
+
+  /** To initialize a branch that is a plan found while splitting the search
+   *  tree.
+   *
+   *  @param plan
+   *          the plan.
+  */
+  SearchBranch(Plan plan)
+  {
+    plans = new LinkedList<Plan>();
+    plans.add(plan);
+  }
+
+  /** To initialize a branch that is yet to be searched.
+   *
+   *  @param parentIn
+   *          the planner that split the search tree into branches.
+   *  @param plannerIn
+   *          the planner that searches this branch.
+   *  @param tasksIn
+   *          the task network the planner of this branch starts with.
+   *  @param chosenIn
+   *          the position, in the task network, of the task network the
+   *          planner of this branch chooses the first task atom to achieve
+   *          from, or <code>null</code> for the whole task network.
+  */
+  SearchBranch(Planner parentIn, Planner plannerIn, TaskNetwork tasksIn,
+               int[] chosenIn)
+  {
+    parent = parentIn;
+    planner = plannerIn;
+    tasks = tasksIn;
+    chosen = chosenIn;
+  }
+
+  /** To search this branch.
+  */
+  protected void compute()
+  {
+    plans = planner.search(tasks, chosen);
+    parent.branchDone(this);
+  }
+}
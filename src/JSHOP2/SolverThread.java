@@ -4,11 +4,9 @@ import java.util.GregorianCalendar;
 import java.util.Iterator;
 import java.util.LinkedList;
 
-/** The thread that invokes JSHOP2 to solve a planning problem. The only reason
- *  to have another thread to solve problems rather than using the main thread
- *  to do so is that, in some platforms, the command line parameters that are
- *  supposed to change the stack size work only for the threads other than the
- *  main thread.
+/** The thread that invokes JSHOP2 to solve a planning problem. Several such
+ *  threads can solve different problems at the same time, as long as each of
+ *  them has a planner of its own.
  *
  *  @author Okhtay Ilghami
  *  @author <a href="http://www.cs.umd.edu/~okhtay">http://www.cs.umd.edu/~okhtay</a>
@@ -19,6 +17,11 @@ public class SolverThread extends Thread
   /** The maximum number of plans allowed. */
   private int planNo;
 
+  /** The planner that solves the problem, or <code>null</code> if the default
+   *  planner is to be used.
+  */
+  private Planner planner;
+
   /** The task list to be achieved.
   */
   private TaskList tl;
@@ -32,10 +35,61 @@ public class SolverThread extends Thread
   */
   public SolverThread(TaskList tlIn, int planNoIn)
   {
+    this(null, tlIn, planNoIn);
+  }
+
+  /** To initialize this thread.
+   *
+   *  @param plannerIn
+   *          the planner that solves the problem, or <code>null</code> if the
+   *          default planner is to be used.
+   *  @param tlIn
+   *          the task list to be achieved by this thread.
+   *  @param planNoIn
+   *          the maximum number of plans allowed.
+  */
+  public SolverThread(Planner plannerIn, TaskList tlIn, int planNoIn)
+  {
+    planner = plannerIn;
     tl = tlIn;
     planNo = planNoIn;
   }
 
+  /** To give up the search this thread is doing. The search stops at its next
+   *  step, and the plans found so far are printed.
+  */
+  public void cancel()
+  {
+    Planner p = getSolver();
+
+    if (p != null)
+      p.cancel();
+  }
+
+  /** To get the planner that solves the problem.
+   *
+   *  @return
+   *          the planner given to this thread, or the default planner if none
+   *          was given.
+  */
+  private Planner getSolver()
+  {
+    return (planner != null) ? planner : JSHOP2.getDefaultPlanner();
+  }
+
+  /** To start this thread. A call to <code>cancel</code> made from now on
+   *  gives up the search, even if the search has not started yet.
+  */
+  public void start()
+  {
+    Planner p = getSolver();
+
+    if (p != null)
+      p.clearCancelled();
+
+    super.start();
+  }
+
   /** The function that is called when this thread is invoked.
   */
   public void run()
@@ -44,22 +98,27 @@ public class SolverThread extends Thread
     long t1 = new GregorianCalendar().getTimeInMillis();
 
     //-- Solve the planning problem.
-    LinkedList p = JSHOP2.findPlans(tl, planNo);
+    Planner solver = getSolver();
+    LinkedList<Plan> p = solver.solve(tl, planNo);
 
     //-- Get the current time again, to calculate the time used.
     long t2 = new GregorianCalendar().getTimeInMillis();
 
     System.out.println();
+
+    if (!solver.isComplete())
+      System.out.println("The search was stopped before it was complete.");
+
     System.out.println(p.size() + " plan(s) were found:");
     System.out.println();
 
     //-- Print the plans found.
-    Iterator e = p.iterator();
+    Iterator<Plan> e = p.iterator();
     int i = 0;
     while (e.hasNext())
     {
       System.out.println("Plan #" + ++i + ":");
-      System.out.println((Plan)e.next());
+      System.out.println(e.next());
     }
 
     System.out.println("Time Used = " + (t2 - t1) / 1000.0);
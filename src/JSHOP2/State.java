@@ -1,8 +1,6 @@
 package JSHOP2;
 
-import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.Vector;
 
 /**
  * This class is used to represent the current state of the world.
@@ -13,12 +11,32 @@ import java.util.Vector;
  */
 public class State
 {
+	/**
+	 * The kind of change recorded in the trail when an atom is added.
+	 */
+	private static final byte ATOM_ADDED = 0;
+
+	/**
+	 * The kind of change recorded in the trail when an atom is deleted.
+	 */
+	private static final byte ATOM_DELETED = 1;
+
+	/**
+	 * The kind of change recorded in the trail when a predicate is protected.
+	 */
+	private static final byte PROTECTION_ADDED = 2;
+
+	/**
+	 * The kind of change recorded in the trail when a predicate is unprotected.
+	 */
+	private static final byte PROTECTION_DELETED = 3;
+
 	/**
 	 * The atoms in the current state of the world as an array of
-	 * <code>Vector</code>s. The array is indexed by the possible heads (i.e.,
+	 * <code>AtomSet</code>s. The array is indexed by the possible heads (i.e.,
 	 * the constant symbol that comes first) of the possible predicates.
 	 */
-	private Vector[] atoms;
+	private AtomSet[] atoms;
 
 	/**
 	 * The axioms in the domain description as a two-dimensional array. The array
@@ -29,16 +47,91 @@ public class State
 
 	/**
 	 * The protections in the current state of the world as an array of
-	 * <code>Vector</code>s. The array is indexed by the heads of protected
-	 * predicates.
+	 * <code>ProtectionSet</code>s. The array is indexed by the heads of
+	 * protected predicates.
+	 */
+	private ProtectionSet[] protections;
+
+	/**
+	 * For each head of atoms, the heads of the predicates what the axioms prove
+	 * for depends on the atoms with that head, either directly or through other
+	 * axioms.
 	 */
-	private Vector[] protections;
+	private int[][] dependents;
 
 	/**
 	 * The control rules that apply to the current state.
 	 */
 	private LTLExpression controlRules;
 
+	/**
+	 * The 64-bit hash code of the atoms and protections in the current state of
+	 * the world, i.e., the sum of the hash codes of the atoms and of the
+	 * protections. It is kept up to date as they change.
+	 */
+	private long fingerprint;
+
+	/**
+	 * The minimum number of atoms with the same head for those atoms to be
+	 * indexed by their arguments. If it is not positive, the atoms are never
+	 * indexed.
+	 */
+	private int indexThreshold = 16;
+
+	/**
+	 * The minimum number of satisfiers an atomic conjunct of a conjunctive
+	 * precondition is expected to have under no binding for those satisfiers
+	 * to be found by a hash join. If it is not positive, hash joins are never
+	 * used.
+	 */
+	private int joinThreshold = 64;
+
+	/**
+	 * Whether or not the atomic conjuncts of conjunctive preconditions are
+	 * tried in the order in which the fewest atoms are expected to be looked
+	 * at, rather than in the order they were written in.
+	 */
+	private boolean reorderConjuncts;
+
+	/**
+	 * For each head of predicates, the table of what the axioms for that head
+	 * have been found to prove so far in the current state of the world, or
+	 * <code>null</code> if there is none.
+	 */
+	private AxiomTable[] tables;
+
+	/**
+	 * Whether or not what the axioms prove is kept in tables.
+	 */
+	private boolean tableAxioms;
+
+	/**
+	 * The kinds of the changes made to the current state of the world, in the
+	 * order they were made. This is used in case of a backtrack to undo those
+	 * changes.
+	 */
+	private byte[] trailKinds;
+
+	/**
+	 * The objects the changes in the trail were made to: the entries of the
+	 * added and deleted atoms, and the protected and unprotected predicates.
+	 */
+	private Object[] trailRefs;
+
+	/**
+	 * The number of changes in the trail.
+	 */
+	private int trailSize;
+
+	/**
+	 * For each head of predicates, the number of times the atoms with that head,
+	 * or, for heads that can be proved by axioms, the atoms the axioms depend
+	 * on, have changed. These numbers only ever increase, so as long as their
+	 * sum over the heads an expression refers to stays the same, so does the
+	 * truth value of the expression.
+	 */
+	private long[] versions;
+
 	/**
 	 * To initialize the state of the world.
 	 * 
@@ -54,18 +147,27 @@ public class State
 	{
 		// -- Initialize the arrays that represent the atoms and protections in the
 		// -- current state of the world.
-		atoms = new Vector[size];
+		atoms = new AtomSet[size];
 
-		protections = new Vector[size];
+		protections = new ProtectionSet[size];
 
 		for(int i = 0; i < size; i++)
 		{
-			atoms[i] = new Vector();
-			protections[i] = new Vector();
+			atoms[i] = new AtomSet();
+			atoms[i].head = i;
+			protections[i] = new ProtectionSet();
 		}
 
 		axioms = axiomsIn;
 
+		dependents = findDependents(size, axioms);
+		tables = new AxiomTable[axioms.length];
+		versions = new long[Math.max(size, axioms.length)];
+
+		trailKinds = new byte[64];
+		trailRefs = new Object[64];
+		trailSize = 0;
+
 		// intialize the control rules to "true" - we add actual rules by conjoining
 		// this with parameters to addControlRules(...)
 		controlRules = LTLTrue.getInstance();
@@ -82,23 +184,22 @@ public class State
 	 */
 	public boolean add(Predicate p)
 	{
-		Term t;
-
-		// -- Find the right Vector to add this predicate to.
-		Iterator e = atoms[p.getHead()].iterator();
+		// -- Add the predicate to the right set of atoms, unless it is already
+		// -- there. The shared copy of its argument list is stored, so that the
+		// -- ground predicates it is compared to are most likely the very same
+		// -- objects.
+		AtomEntry added = atoms[p.getHead()].add(TermTable.intern(p.getParam()));
 
-		// -- First look for the predicate in the Vector. If it is already there,
-		// -- do nothing and return false.
-		while(e.hasNext())
-		{
-			t = (Term) e.next();
+		if(added == null)
+			return false;
 
-			if(p.equals(t))
-				return false;
-		}
+		added.fingerprint = Term.fingerprintList(Term.fingerprintConstant(p
+		  .getHead()), added.paramFingerprint());
+		fingerprint += added.fingerprint;
+		invalidate(p.getHead());
 
-		// -- Add the predicate and return true.
-		atoms[p.getHead()].add(p.getParam());
+		// -- Keep track of the addition so that it can be undone.
+		record(ATOM_ADDED, added);
 
 		return true;
 	}
@@ -120,27 +221,11 @@ public class State
 	 */
 	public boolean addProtection(Predicate p)
 	{
-		NumberedPredicate np;
-
-		// -- First, find the appropriate Vector to add the protection to.
-		Iterator e = protections[p.getHead()].iterator();
+		protect(p);
 
-		// -- If the predicate is already protected, just increase the protection
-		// -- counter.
-		while(e.hasNext())
-		{
-			np = (NumberedPredicate) e.next();
-
-			if(p.equals(np.getParam()))
-			{
-				np.inc();
-				return true;
-			}
-		}
+		// -- Keep track of the protection so that it can be undone.
+		record(PROTECTION_ADDED, p);
 
-		// -- If this is the first time this predicate is being protected, add it
-		// -- to the Vector.
-		protections[p.getHead()].add(new NumberedPredicate(p));
 		return true;
 	}
 
@@ -154,6 +239,19 @@ public class State
 			atoms[i].clear();
 			protections[i].clear();
 		}
+
+		// -- There is nothing left to undo.
+		for(int i = 0; i < trailSize; i++)
+			trailRefs[i] = null;
+
+		trailSize = 0;
+		fingerprint = 0;
+
+		for(int i = 0; i < tables.length; i++)
+			tables[i] = null;
+
+		for(int i = 0; i < versions.length; i++)
+			versions[i]++;
 	}
 	
 	/**
@@ -165,37 +263,66 @@ public class State
 	}
 
 	/**
-	 * To delete a predicate from the current state of the world.
+	 * To make a copy of this state of the world that can be changed
+	 * independently of it. The copy has the same atoms, in the same order, the
+	 * same protections and the same control rules, but nothing to undo.
 	 * 
-	 * @param p
-	 *          the predicate to be deleted.
-	 * @return the index of the predicate that was deleted in the
-	 *         <code>Vector</code> if the predicate was deleted (i.e., it
-	 *         existed in the current state of the world), -1 otherwise. This
-	 *         index is used in case of a backtrack to undo this deletion by
-	 *         inserting the deleted predicate right back where it used to be.
+	 * @return the copy.
 	 */
-	public int del(Predicate p)
+	public Object clone()
 	{
-		Term t;
+		State retVal = new State(atoms.length, axioms);
 
-		// -- Find the right Vector to delete this predicate from.
-		Vector vec = atoms[p.getHead()];
-
-		// -- If predicate is found, delete it and return its index.
-		for(int i = 0; i < vec.size(); i++)
+		for(int i = 0; i < atoms.length; i++)
 		{
-			t = (Term) vec.get(i);
+			retVal.atoms[i] = atoms[i].copy();
+
+			// -- The copies of the atoms have the same hash codes.
+			AtomEntry c = retVal.atoms[i].next(null);
 
-			if(p.equals(t))
+			for(AtomEntry a = atoms[i].next(null); a != null; a = atoms[i].next(a))
 			{
-				vec.remove(i);
-				return i;
+				c.fingerprint = a.fingerprint;
+				c = retVal.atoms[i].next(c);
 			}
+
+			retVal.protections[i] = protections[i].copy();
 		}
 
-		// -- There was nothing to delete, so return -1.
-		return -1;
+		retVal.controlRules = controlRules;
+		retVal.indexThreshold = indexThreshold;
+		retVal.joinThreshold = joinThreshold;
+		retVal.reorderConjuncts = reorderConjuncts;
+		retVal.tableAxioms = tableAxioms;
+		retVal.fingerprint = fingerprint;
+
+		return retVal;
+	}
+
+	/**
+	 * To delete a predicate from the current state of the world.
+	 * 
+	 * @param p
+	 *          the predicate to be deleted.
+	 * @return <code>true</code> if the predicate was deleted (i.e., it existed
+	 *         in the current state of the world), <code>false</code> otherwise.
+	 */
+	public boolean del(Predicate p)
+	{
+		// -- Delete the predicate from the right set of atoms, if it is there.
+		AtomEntry deleted = atoms[p.getHead()].remove(p.getParam());
+
+		if(deleted == null)
+			return false;
+
+		fingerprint -= deleted.fingerprint;
+		invalidate(p.getHead());
+
+		// -- Keep track of the deletion, so that in case of a backtrack the
+		// -- deleted predicate can be inserted right back where it used to be.
+		record(ATOM_DELETED, deleted);
+
+		return true;
 	}
 
 	/**
@@ -209,37 +336,180 @@ public class State
 	 */
 	public boolean delProtection(Predicate p)
 	{
-		NumberedPredicate np;
+		if(!unprotect(p))
+			return false;
 
-		// -- First, find the appropriate Vector to delete the protection from.
-		Iterator e = protections[p.getHead()].iterator();
+		// -- Keep track of the unprotection so that it can be undone.
+		record(PROTECTION_DELETED, p);
 
-		// -- Look for the protection.
-		while(e.hasNext())
-		{
-			np = (NumberedPredicate) e.next();
+		return true;
+	}
 
-			// -- If it is found,
-			if(p.equals(np.getParam()))
+	/**
+	 * To estimate the number of atoms in the current state of the world that
+	 * unify with a predicate, once some of its variables are bound to
+	 * arguments that are not known yet.
+	 * 
+	 * @param p
+	 *          the predicate.
+	 * @param bound
+	 *          which variables are to be bound.
+	 * @return the estimate.
+	 */
+	int estimate(Predicate p, boolean[] bound)
+	{
+		return atoms[p.getHead()].estimate(p.getParam(), bound, indexThreshold);
+	}
+
+	/**
+	 * To find, for each head of atoms, the heads of the predicates what the
+	 * axioms prove for depends on the atoms with that head, either directly or
+	 * through other axioms. What the axioms whose dependencies are not known
+	 * prove depends on all the atoms.
+	 * 
+	 * @param size
+	 *          the number of possible heads of atoms.
+	 * @param axioms
+	 *          the axioms, indexed first by the head of the predicates each
+	 *          axiom can prove.
+	 * @return the heads of the predicates, indexed by the heads of the atoms.
+	 */
+	private static int[][] findDependents(int size, Axiom[][] axioms)
+	{
+		// -- Which heads of atoms what the axioms for each head prove depends on
+		// -- directly.
+		boolean[][] depends = new boolean[axioms.length][];
+
+		for(int d = 0; d < axioms.length; d++)
+			for(int i = 0; i < axioms[d].length; i++)
 			{
-				// -- Decrease the protection counter for this predicate.
-				if(!np.dec())
-					// -- If the counter drops to zero, remove the protection completely.
-					e.remove();
+				if(depends[d] == null)
+					depends[d] = new boolean[size];
+
+				int[] heads = axioms[d][i].getDependencies();
 
-				return true;
+				if(heads == null)
+					for(int h = 0; h < size; h++)
+						depends[d][h] = true;
+				else
+					for(int k = 0; k < heads.length; k++)
+						depends[d][heads[k]] = true;
+			}
+
+		// -- What the axioms for a head depend on through the axioms for the
+		// -- other heads. Repeat until nothing changes.
+		boolean changed = true;
+
+		while(changed)
+		{
+			changed = false;
+
+			for(int d = 0; d < axioms.length; d++)
+			{
+				if(depends[d] == null)
+					continue;
+
+				for(int h = 0; h < axioms.length && h < size; h++)
+					if(h != d && depends[d][h] && depends[h] != null)
+						for(int k = 0; k < size; k++)
+							if(depends[h][k] && !depends[d][k])
+							{
+								depends[d][k] = true;
+								changed = true;
+							}
 			}
 		}
 
-		// -- Nothing was there to delete, so return false.
-		return false;
+		// -- Turn the dependencies around.
+		int[] count = new int[size];
+
+		for(int d = 0; d < axioms.length; d++)
+			for(int h = 0; h < size; h++)
+				if(depends[d] != null && depends[d][h])
+					count[h]++;
+
+		int[][] retVal = new int[size][];
+
+		for(int h = 0; h < size; h++)
+			retVal[h] = new int[count[h]];
+
+		for(int d = 0; d < axioms.length; d++)
+			for(int h = 0; h < size; h++)
+				if(depends[d] != null && depends[d][h])
+					retVal[h][--count[h]] = d;
+
+		return retVal;
+	}
+
+	/**
+	 * To get a 64-bit hash code of the current state of the world, i.e., of its
+	 * atoms and protections. It does not depend on the order in which the atoms
+	 * were added, nor on the control rules. Two different states are very
+	 * unlikely to have the same hash code. The hash code is kept up to date as
+	 * the state changes, so getting it takes constant time.
+	 *
+	 * @return the hash code.
+	 */
+	public long fingerprint()
+	{
+		return fingerprint;
 	}
 
 	public LTLExpression getControlRules()
 	{
 		return controlRules;
 	}
+
+	/**
+	 * To get the minimum number of satisfiers an atomic conjunct is expected to
+	 * have for those satisfiers to be found by a hash join.
+	 * 
+	 * @return the minimum number of satisfiers, or 0 if hash joins are never
+	 *         used.
+	 */
+	int getJoinThreshold()
+	{
+		return joinThreshold;
+	}
 	
+	/**
+	 * To throw away the tables of what the axioms prove that depend on the
+	 * atoms with a given head, after one of those atoms has changed, and to
+	 * record the change for the expressions that refer to that head or to the
+	 * heads those axioms prove.
+	 * 
+	 * @param head
+	 *          the head of the atom.
+	 */
+	private void invalidate(int head)
+	{
+		int[] heads = dependents[head];
+
+		versions[head]++;
+
+		for(int i = 0; i < heads.length; i++)
+		{
+			tables[heads[i]] = null;
+			versions[heads[i]]++;
+		}
+	}
+
+	/**
+	 * Whether or not the predicates with a given head can be proved by axioms.
+	 * The satisfiers of such predicates may depend on which of their variables
+	 * are bound when they are looked for, because of the semantics of the
+	 * branches of axioms.
+	 * 
+	 * @param head
+	 *          the head.
+	 * @return <code>true</code> if there are axioms for the head,
+	 *         <code>false</code> otherwise.
+	 */
+	boolean isDerived(int head)
+	{
+		return (axioms[head].length > 0);
+	}
+
 	/**
 	 * To check if a predicate is protected.
 	 * 
@@ -250,21 +520,7 @@ public class State
 	 */
 	public boolean isProtected(Predicate p)
 	{
-		NumberedPredicate np;
-
-		// -- First, find the appropriate Vector to look for the protection.
-		Iterator e = protections[p.getHead()].iterator();
-
-		// -- Iterate over the Vector to find the protection.
-		while(e.hasNext())
-		{
-			np = (NumberedPredicate) e.next();
-
-			if(p.equals(np.getParam()))
-				return true;
-		}
-
-		return false;
+		return (protections[p.getHead()].count(p) > 0);
 	}
 
 	/**
@@ -282,48 +538,90 @@ public class State
 	}
 
 	/**
-	 * This function returns the bindings that can satisfy a given precondition
-	 * one-by-one.
+	 * To get the current position in the trail of changes made to the current
+	 * state of the world. The changes made after this point can later be undone
+	 * by passing the returned value to <code>rollback</code>.
+	 * 
+	 * @return the current position in the trail.
+	 */
+	public int mark()
+	{
+		return trailSize;
+	}
+
+	/**
+	 * To read the next binding that satisfies a given predicate by the axioms
+	 * from the entry of the table the iterator reads from. If it has not been
+	 * found yet, it is found and added to the entry. If the entry is being
+	 * filled further up in the call stack, the iterator stops reading from it,
+	 * and finds the bindings itself instead.
 	 * 
 	 * @param p
 	 *          the predicate to be satisfied.
 	 * @param me
-	 *          the iterator that keeps track of where we are with the satisfiers
-	 *          so that the next time this function is called, we can take off
-	 *          where we stopped last time.
-	 * @return the next binding as an array of terms indexed by the indeices of
-	 *         the variable symbols in the given predicate.
+	 *          the iterator that keeps track of where we are with the satisfiers.
+	 * @return the next binding, or <code>null</code> if there are no more.
 	 */
-	public Term[] nextBinding(Predicate p, MyIterator me)
+	private Term[] nextAnswer(Predicate p, MyIterator me)
 	{
-		Term[] nextB;
-
-		Term[] retVal;
+		AxiomAnswers a = me.answers;
 
-		Term t;
-
-		// -- If we are still looking into the atoms to prove the predicate (i.e.,
-		// -- we have not started looking into the axioms),
-		if(me.whichAxiom == -1)
+		if(me.answer == a.size && !a.complete)
 		{
-			// -- Iterate over the appropriate Vector to find atoms that can satisfy
-			// -- the given predicate.
-			while(me.index < me.vec.size())
+			if(a.busy)
 			{
-				t = (Term) me.vec.get(me.index++);
-				retVal = p.findUnifier(t);
+				// -- Skip the bindings already read from the entry.
+				me.answers = null;
 
-				// -- If this atom can satisfy the given predicate, return the binding
-				// -- that unifies the two.
-				if(retVal != null)
-					return retVal;
+				for(int i = 0; i < me.answer; i++)
+					nextAxiomBinding(p, me);
+
+				return nextAxiomBinding(p, me);
 			}
 
-			// -- We have already looked at all the atoms that could possibly satisfy
-			// -- the predicate. From now on, we will look at the axioms only.
-			me.whichAxiom = 0;
+			Term[] b;
+
+			a.busy = true;
+
+			try
+			{
+				b = nextAxiomBinding(a.pattern, a.producer);
+			}
+			finally
+			{
+				a.busy = false;
+			}
+
+			if(b == null)
+			{
+				a.complete = true;
+				a.producer = null;
+			}
+			else
+				a.add(b);
 		}
 
+		if(me.answer == a.size)
+			return null;
+
+		// -- The bindings returned might be changed, so return a copy.
+		return a.answers[me.answer++].clone();
+	}
+
+	/**
+	 * To find the next binding that satisfies a given predicate by the axioms,
+	 * once all the atoms that could satisfy it have been looked at.
+	 * 
+	 * @param p
+	 *          the predicate to be satisfied.
+	 * @param me
+	 *          the iterator that keeps track of where we are with the satisfiers.
+	 * @return the next binding, or <code>null</code> if there are no more.
+	 */
+	private Term[] nextAxiomBinding(Predicate p, MyIterator me)
+	{
+		Term[] nextB;
+
 		while(true)
 		{
 			// -- If we need to look at a new axiom,
@@ -372,10 +670,8 @@ public class State
 					Predicate groundAxiomHead = me.ax.getHead().applySubstitution(nextB);
 
 					// -- Try to unify the axiom and the predicate.
-					retVal = p.findUnifier(groundAxiomHead.getParam());
-
 					// -- If there is such unifier, return it.
-					if(retVal != null)
+					if(p.findUnifier(groundAxiomHead.getParam(), me.frame))
 					{
 						// -- The further branches of this axiom must NOT be considered even
 						// -- if this branch fails because there has been at least one
@@ -384,7 +680,7 @@ public class State
 						// -- considered.
 						me.found = true;
 
-						return retVal;
+						return me.frame.take();
 					}
 				}
 
@@ -407,20 +703,91 @@ public class State
 	}
 
 	/**
-	 * This function is used to print the current state of the world.
+	 * This function returns the bindings that can satisfy a given precondition
+	 * one-by-one.
+	 * 
+	 * @param p
+	 *          the predicate to be satisfied.
+	 * @param me
+	 *          the iterator that keeps track of where we are with the satisfiers
+	 *          so that the next time this function is called, we can take off
+	 *          where we stopped last time.
+	 * @return the next binding as an array of terms indexed by the indeices of
+	 *         the variable symbols in the given predicate.
 	 */
-	public void print()
+	public Term[] nextBinding(Predicate p, MyIterator me)
 	{
-		for(int i = 0; i < atoms.length; i++)
+		AtomEntry e;
+
+		// -- If the satisfiers found by the axioms are being read from a table,
+		// -- read the next one.
+		if(me.answers != null)
+			return nextAnswer(p, me);
+
+		// -- The unifiers are looked for in a binding frame, so that a new binding
+		// -- is made only for the atoms, or the instances of the heads of axioms,
+		// -- that do satisfy the predicate.
+		if(me.frame == null)
+			me.frame = new BindingFrame(p.getVarCount());
+
+		// -- If we are still looking into the atoms to prove the predicate (i.e.,
+		// -- we have not started looking into the axioms),
+		if(me.whichAxiom == -1)
 		{
-			Iterator e = atoms[i].iterator();
+			// -- The first time, choose the smallest bucket of atoms that share an
+			// -- argument with the given predicate, if there are enough atoms to
+			// -- make it worthwhile.
+			if(!me.selected)
+			{
+				me.bucket = me.atoms.select(p.getParam(), indexThreshold);
+				me.selected = true;
+			}
 
-			while(e.hasNext())
+			// -- Iterate over the appropriate set of atoms to find atoms that can
+			// -- satisfy the given predicate.
+			while((e = me.atoms.next(me.entry, me.bucket)) != null)
 			{
-				Term t = (Term) e.next();
-				(new Predicate(i, 0, t)).print();
+				me.entry = e;
+
+				// -- If this atom can satisfy the given predicate, return the binding
+				// -- that unifies the two.
+				if(e.row != null ? p.findUnifier(e.row, me.frame) : p.findUnifier(
+						e.param, me.frame))
+					return me.frame.take();
 			}
 
+			// -- We have already looked at all the atoms that could possibly satisfy
+			// -- the predicate. From now on, we will look at the axioms only.
+			me.whichAxiom = 0;
+		}
+
+		// -- The first time the axioms are looked at, look for what they prove in
+		// -- the table for the head of the predicate instead.
+		if(me.whichAxiom == 0 && me.ax == null && tableAxioms
+		  && axioms[p.getHead()].length > 0 && AxiomTable.isTabled(p))
+		{
+			if(tables[p.getHead()] == null)
+				tables[p.getHead()] = new AxiomTable();
+
+			me.answers = tables[p.getHead()].find(p, atoms[p.getHead()]);
+			me.answer = 0;
+
+			return nextAnswer(p, me);
+		}
+
+		return nextAxiomBinding(p, me);
+	}
+
+	/**
+	 * This function is used to print the current state of the world.
+	 */
+	public void print()
+	{
+		for(int i = 0; i < atoms.length; i++)
+		{
+			for(AtomEntry e = atoms[i].next(null); e != null; e = atoms[i].next(e))
+				(new Predicate(i, 0, e.getParam())).print();
+
 			System.out.println();
 		}
 
@@ -428,60 +795,241 @@ public class State
 	}
 
 	/**
-	 * This function is used, in case of a backtrack, to undo the changes that
-	 * were made to the control rules because of the backtracked decision.
+	 * To protect a given predicate without recording the change in the trail.
 	 * 
-	 * @param oldRules the control rules from before the backtracked decision.
+	 * @param p
+	 *          the predicate to be protected.
 	 */
-	public void undo(LTLExpression oldRules)
+	private void protect(Predicate p)
 	{
-		controlRules = oldRules;
+		// -- If the predicate is already protected, this just increases the
+		// -- protection counter.
+		int number = protections[p.getHead()].add(p);
+
+		if(number > 1)
+			fingerprint -= protectionFingerprint(p, number - 1);
+
+		fingerprint += protectionFingerprint(p, number);
 	}
-	
+
 	/**
-	 * This function is used, in case of a backtrack, to undo the changes that
-	 * were made to the current state of the world because of the backtracked
-	 * decision.
+	 * To compute the hash code of a protection, as it is counted in the hash
+	 * code of the state of the world.
+	 * 
+	 * @param p
+	 *          the protected predicate.
+	 * @param number
+	 *          the number of times the predicate is protected.
+	 * @return the hash code.
+	 */
+	private static long protectionFingerprint(Predicate p, int number)
+	{
+		return Term.mix(Term.fingerprintList(Term.fingerprintConstant(p.getHead()),
+		  Term.fingerprint(p.getParam())) + number);
+	}
+
+	/**
+	 * To record a change made to the current state of the world in the trail.
 	 * 
-	 * @param delAdd
-	 *          a 4-member array of type <code>Vector</code>. These four
-	 *          members are the deleted atoms, the added atoms, the deleted
-	 *          protections and the added protections respectively.
+	 * @param kind
+	 *          the kind of the change.
+	 * @param ref
+	 *          the object the change was made to.
 	 */
-	public void undo(Vector[] delAdd)
+	private void record(byte kind, Object ref)
 	{
-		Iterator e;
+		// -- If the trail is full, double its size.
+		if(trailSize == trailKinds.length)
+		{
+			byte[] kinds = new byte[trailSize << 1];
+			Object[] refs = new Object[trailSize << 1];
 
-		NumberedPredicate np;
+			System.arraycopy(trailKinds, 0, kinds, 0, trailSize);
+			System.arraycopy(trailRefs, 0, refs, 0, trailSize);
 
-		// -- Since when an operator is applied, first the predicates in its delete
-		// -- list are deleted and then the predicates in its add list are added,
-		// -- when that application is undone, first the added predicates should be
-		// -- deleted and then the deleted predicates should be added.
+			trailKinds = kinds;
+			trailRefs = refs;
+		}
 
-		// -- Deleting the added predicates.
-		e = delAdd[1].iterator();
-		while(e.hasNext())
-			del((Predicate) e.next());
+		trailKinds[trailSize] = kind;
+		trailRefs[trailSize++] = ref;
+	}
+
+	/**
+	 * Whether or not the atomic conjuncts of conjunctive preconditions are to
+	 * be reordered in this state of the world.
+	 * 
+	 * @return <code>true</code> if they are to be reordered,
+	 *         <code>false</code> otherwise.
+	 */
+	boolean reordersConjuncts()
+	{
+		return reorderConjuncts;
+	}
 
-		// -- Adding the deleted predicates, exactly where they were deleted from.
-		for(int i = delAdd[0].size() - 1; i >= 0; i--)
+	/**
+	 * This function is used, in case of a backtrack, to undo the changes that
+	 * were made to the current state of the world because of the backtracked
+	 * decision. The changes are undone in the reverse order they were made in,
+	 * so that every deleted atom is inserted right back where it used to be.
+	 * 
+	 * @param mark
+	 *          the position in the trail, as returned by <code>mark</code>
+	 *          before the backtracked decision was made.
+	 */
+	public void rollback(int mark)
+	{
+		while(trailSize > mark)
 		{
-			np = (NumberedPredicate) delAdd[0].get(i);
-			atoms[np.getHead()].add(np.getNumber(), np.getParam());
+			Object ref = trailRefs[--trailSize];
+			trailRefs[trailSize] = null;
+
+			switch(trailKinds[trailSize])
+			{
+				case ATOM_ADDED:
+					((AtomEntry) ref).owner.remove((AtomEntry) ref);
+					fingerprint -= ((AtomEntry) ref).fingerprint;
+					invalidate(((AtomEntry) ref).owner.head);
+					break;
+				case ATOM_DELETED:
+					((AtomEntry) ref).owner.restore((AtomEntry) ref);
+					fingerprint += ((AtomEntry) ref).fingerprint;
+					invalidate(((AtomEntry) ref).owner.head);
+					break;
+				case PROTECTION_ADDED:
+					unprotect((Predicate) ref);
+					break;
+				case PROTECTION_DELETED:
+					protect((Predicate) ref);
+					break;
+			}
 		}
+	}
+
+	/**
+	 * To set whether or not what the axioms prove for a predicate is kept in a
+	 * table, so that the axioms do not have to be used again the next time the
+	 * same predicate needs to be proved, until one of the atoms they depend on
+	 * changes. The satisfiers are found in the same order either way. This is
+	 * off by default. It should be turned on only if the axioms call no code
+	 * that depends on anything but its arguments.
+	 * 
+	 * @param table
+	 *          whether or not to keep what the axioms prove in tables.
+	 */
+	public void setAxiomTabling(boolean table)
+	{
+		tableAxioms = table;
+
+		for(int i = 0; i < tables.length; i++)
+			tables[i] = null;
+	}
 
-		// -- Deleting the added protections.
-		e = delAdd[3].iterator();
-		while(e.hasNext())
-			delProtection((Predicate) e.next());
+	/**
+	 * To set whether or not the atoms in this state whose arguments are all
+	 * constant symbols are stored compactly, as rows of constant symbol indexes.
+	 * Such atoms are then matched against predicates without looking at any
+	 * <code>Term</code> objects, and their argument lists are made only when
+	 * they are printed. The atoms already in this state, e.g., those of the
+	 * initial state of the world, are converted as well.
+	 * 
+	 * @param compact
+	 *          whether or not to store such atoms compactly.
+	 */
+	public void setCompactStorage(boolean compact)
+	{
+		for(int i = 0; i < atoms.length; i++)
+			atoms[i].setCompact(compact);
+	}
+
+	/**
+	 * To set whether or not the atomic conjuncts of conjunctive preconditions
+	 * are tried in the order in which the fewest atoms are expected to be
+	 * looked at in this state of the world, rather than in the order they were
+	 * written in. Only consecutive atomic conjuncts whose arguments have no
+	 * call terms are reordered, so the satisfiers are the same, but they may
+	 * be found in a different order, and so may the plans. Preconditions
+	 * marked <code>:first</code> or <code>:sort-by</code> are never reordered.
+	 * 
+	 * @param reorder
+	 *          whether or not to reorder the conjuncts.
+	 */
+	public void setConjunctReordering(boolean reorder)
+	{
+		reorderConjuncts = reorder;
+	}
+
+	/**
+	 * To set the minimum number of atoms with the same head for those atoms to
+	 * be indexed by their arguments. When there are at least that many atoms,
+	 * the atoms that can possibly satisfy a predicate some of whose arguments
+	 * are bound are found by looking only at the atoms with the same argument
+	 * at the most selective bound position. The order in which the satisfiers
+	 * are found does not change.
+	 * 
+	 * @param threshold
+	 *          the minimum number of atoms, or 0 to never index the atoms.
+	 */
+	public void setIndexThreshold(int threshold)
+	{
+		indexThreshold = threshold;
+	}
+
+	/**
+	 * To set the minimum number of satisfiers an atomic conjunct of a
+	 * conjunctive precondition is expected to have under no binding for those
+	 * satisfiers to be found by a hash join, i.e., by putting them all in a
+	 * hash table keyed by the variables the conjuncts before it bind, rather
+	 * than by looking at the atoms again for every binding of those conjuncts.
+	 * A hash join is only used once the atoms looked at that way are expected
+	 * to be as many as those satisfiers. The order in which the satisfiers are
+	 * found does not change.
+	 * 
+	 * @param threshold
+	 *          the minimum number of satisfiers, or 0 to never use hash joins.
+	 */
+	public void setJoinThreshold(int threshold)
+	{
+		joinThreshold = threshold;
+	}
 
-		// -- Adding the deleted protections.
-		e = delAdd[2].iterator();
-		while(e.hasNext())
-			addProtection((Predicate) e.next());
+	/**
+	 * This function is used, in case of a backtrack, to undo the changes that
+	 * were made to the control rules because of the backtracked decision.
+	 * 
+	 * @param oldRules the control rules from before the backtracked decision.
+	 */
+	public void undo(LTLExpression oldRules)
+	{
+		controlRules = oldRules;
 	}
 
+	/**
+	 * To unprotect a given predicate without recording the change in the trail.
+	 * 
+	 * @param p
+	 *          the predicate to be unprotected.
+	 * @return <code>true</code> if the protected is unprotected successfully,
+	 *         <code>false</code> otherwise.
+	 */
+	private boolean unprotect(Predicate p)
+	{
+		// -- Decrease the protection counter for this predicate. If it drops to
+		// -- zero, the protection is removed completely.
+		int number = protections[p.getHead()].remove(p);
+
+		// -- Nothing was there to delete, so return false.
+		if(number == 0)
+			return false;
+
+		fingerprint -= protectionFingerprint(p, number);
+
+		if(number > 1)
+			fingerprint += protectionFingerprint(p, number - 1);
+
+		return true;
+	}
+	
 	public boolean isValidFinalState()
 	{
 		return isValidFinalState(controlRules);
@@ -615,6 +1163,44 @@ public class State
   	}
   }
 
+	/**
+	 * Determines whether the current state of the world entails a formula with
+	 * no temporal operators, like <code>entails</code> does, but reuses the
+	 * answer found the last time the formula was evaluated in this state if none
+	 * of the atoms it refers to, directly or through axioms, have changed since.
+	 * The formulas that stay the same from one progression to the next are thus
+	 * evaluated again only when the operators applied in between touch their
+	 * predicates.
+	 * 
+	 * @param f
+	 *          the formula, which must have no temporal operators.
+	 * @return <code>true</code> iff the current state entails this formula,
+	 *         <code>false</code> otherwise.
+	 */
+	private boolean entailsAgain(LTLExpression f)
+	{
+		int[] heads = f.getHeads();
+
+		if(heads == null)
+			return entails(f);
+
+		long stamp = 0;
+
+		for(int i = 0; i < heads.length; i++)
+			stamp += versions[heads[i]];
+
+		// -- The value is read only once, since other threads might replace it.
+		LTLValue v = f.value;
+
+		if(v != null && v.state == this && v.stamp == stamp)
+			return v.value;
+
+		boolean value = entails(f);
+		f.value = new LTLValue(this, stamp, value);
+
+		return value;
+	}
+
 	/**
    * Determines the truth value of a logical formula (without temporal
    * operators) in the given state of the world.
@@ -759,9 +1345,20 @@ public class State
   		if(!atom.isGround())
   			throw new IllegalArgumentException("All atoms should be ground here.");
   
+  		// a ground atom that is in the state is satisfied without any search
+  		if(atoms[atom.getHead()].contains(atom.getParam()))
+  			return true;
+  
+  		// otherwise, only an axiom can satisfy it
+  		if(axioms[atom.getHead()].length == 0)
+  			return false;
+  
   		// get the state's iterator, a helper for s.nextBinding, below
   		MyIterator me = iterator(atom.getHead());
   
+  		// the atoms have already been checked, so start with the axioms
+  		me.whichAxiom = 0;
+  
   		// return true iff there the state satisfies this predicate
   		return(nextBinding(atom, me) != null);
   	}
@@ -1264,7 +1861,7 @@ public class State
   	else
   	{
   		// if the current state entails this formula
-  		if(entails(f))
+  		if(entailsAgain(f))
   			// return TRUE
   			return LTLTrue.getInstance();
   		else
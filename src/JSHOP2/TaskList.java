@@ -288,6 +288,17 @@ public class TaskList extends CompileTimeObject
     return true;
   }
 
+  /** Whether or not this is an ordered task list.
+   *
+   *  @return
+   *          <code>true</code> if this task list is ordered, <code>false</code>
+   *          otherwise.
+  */
+  public boolean isOrdered()
+  {
+    return ordered;
+  }
+
   /** This function is used to print this task list.
   */
   public void print()
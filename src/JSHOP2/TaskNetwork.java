@@ -0,0 +1,443 @@
+package JSHOP2;
+
+/** Each task network the planner is trying to achieve is an instance of this
+ *  class. Unlike a <code>TaskList</code>, a task network never changes once
+ *  it is made: decomposing one of its tasks makes a new task network that
+ *  shares all the task networks in it that are not on the way to that task.
+ *  Therefore, a task network can be kept, e.g., as a key in a table, or given
+ *  to another thread, without being copied. Empty task networks are left out
+ *  of the task networks that contain them, and a task network that would be
+ *  left with only one subtask is replaced by that subtask, since this leaves
+ *  the same choices to the planner.
+ *
+ *  @version 1.0.3
+*/
+public final class TaskNetwork
+{
+  /** This variable represents the empty task network.
+  */
+  public static final TaskNetwork empty = new TaskNetwork(true,
+                                                          new TaskNetwork[0]);
+
+  /** The 64-bit hash code of this task network.
+  */
+  private final long fingerprint;
+
+  /** Whether or not this task network has no variables in it.
+  */
+  private final boolean ground;
+
+  /** Whether or not this is an ordered task network.
+  */
+  private final boolean ordered;
+
+  /** The number of task atoms in this task network.
+  */
+  private final int size;
+
+  /** In case this task network is not atomic, its subtasks. Otherwise, this
+   *  variable will be <code>null</code>.
+  */
+  private final TaskNetwork[] subtasks;
+
+  /** In case this task network is atomic, the task atom it represents.
+   *  Otherwise, this variable will be <code>null</code>.
+  */
+  private final TaskAtom task;
+
+  /** To initialize this task network as an atomic one.
+   *
+   *  @param taskIn
+   *          the task atom this task network will represent.
+  */
+  private TaskNetwork(TaskAtom taskIn)
+  {
+    ordered = true;
+    subtasks = null;
+    task = taskIn;
+    size = 1;
+
+    Predicate p = task.getHead();
+    ground = p.isGround();
+
+    long h = Term.fingerprintList(Term.fingerprintConstant(p.getHead()),
+                                  Term.fingerprint(p.getParam()));
+
+    if (task.isImmediate())
+      h = Term.mix(h);
+
+    fingerprint = (h == 0) ? 1 : h;
+  }
+
+  /** To initialize this task network as a non-atomic one, none of the
+   *  subtasks of which is empty.
+   *
+   *  @param orderedIn
+   *          whether or not this task network is ordered.
+   *  @param subtasksIn
+   *          the subtasks, which must not be changed afterwards.
+  */
+  private TaskNetwork(boolean orderedIn, TaskNetwork[] subtasksIn)
+  {
+    ordered = orderedIn;
+    subtasks = subtasksIn;
+    task = null;
+
+    long h = ordered ? 0x3C6EF372FE94F82BL : 0xA54FF53A5F1D36F1L;
+    int n = 0;
+    boolean g = true;
+
+    for (int i = 0; i < subtasks.length; i++)
+    {
+      //-- The hash codes of the subtasks of an unordered task network are
+      //-- added up, so that their order does not matter.
+      if (ordered)
+        h = Term.fingerprintList(subtasks[i].fingerprint, h);
+      else
+        h += subtasks[i].fingerprint;
+
+      n += subtasks[i].size;
+      g &= subtasks[i].ground;
+    }
+
+    size = n;
+    ground = g;
+
+    if (subtasks.length == 0)
+      fingerprint = 0;
+    else if (subtasks.length == 1)
+      fingerprint = subtasks[0].fingerprint;
+    else
+    {
+      h = Term.mix(h);
+      fingerprint = (h == 0) ? 1 : h;
+    }
+  }
+
+  /** To bind this task network to a given binding. The task networks in it
+   *  that have no variables are not copied.
+   *
+   *  @param binding
+   *          the binding.
+   *  @return
+   *          the resulting task network.
+  */
+  public TaskNetwork bind(Term[] binding)
+  {
+    if (ground)
+      return this;
+
+    if (subtasks == null)
+      return new TaskNetwork(task.bind(binding));
+
+    TaskNetwork[] newSubtasks = new TaskNetwork[subtasks.length];
+
+    for (int i = 0; i < subtasks.length; i++)
+      newSubtasks[i] = subtasks[i].bind(binding);
+
+    return new TaskNetwork(ordered, newSubtasks);
+  }
+
+  /** Whether or not another task network is made of the same task atoms, in
+   *  the same task networks, as this one.
+  */
+  public boolean equals(Object o)
+  {
+    if (o == this)
+      return true;
+
+    if (!(o instanceof TaskNetwork))
+      return false;
+
+    TaskNetwork t = (TaskNetwork)o;
+
+    if (fingerprint != t.fingerprint || size != t.size)
+      return false;
+
+    if (subtasks == null)
+    {
+      Predicate p = task.getHead();
+
+      return (t.subtasks == null && task.isImmediate() == t.task.isImmediate()
+              && task.isPrimitive() == t.task.isPrimitive()
+              && p.getHead() == t.task.getHead().getHead()
+              && p.equals(t.task.getHead().getParam()));
+    }
+
+    if (t.subtasks == null || ordered != t.ordered ||
+        subtasks.length != t.subtasks.length)
+      return false;
+
+    for (int i = 0; i < subtasks.length; i++)
+      if (!subtasks[i].equals(t.subtasks[i]))
+        return false;
+
+    return true;
+  }
+
+  /** To get a 64-bit hash code of the tasks in this task network, which is
+   *  computed only once, when the task network is made. Task networks that
+   *  differ only in the order of the subtasks of their unordered task
+   *  networks have the same hash code, since they leave the same choices to
+   *  the planner. Two task networks that leave different choices are very
+   *  unlikely to have the same hash code.
+   *
+   *  @return
+   *          the hash code, which is 0 if and only if this task network is
+   *          empty.
+  */
+  public long fingerprint()
+  {
+    return fingerprint;
+  }
+
+  /** To find the task atoms we have the option to achieve right now in a
+   *  task network in this one, and to put them in a given frontier, replacing
+   *  whatever was there before. This might be more than one task atom because
+   *  of the existence of unordered task networks, unless one of them is an
+   *  immediate task atom, in which case that task atom and ONLY that task atom
+   *  is put in the frontier.
+   *
+   *  @param chosen
+   *          the position of the task network in this one, as the indexes of
+   *          the subtasks on the way to it, or <code>null</code> for this task
+   *          network itself.
+   *  @param f
+   *          the frontier.
+  */
+  void getFirst(int[] chosen, Frontier f)
+  {
+    f.reset();
+
+    TaskNetwork t = this;
+
+    if (chosen != null)
+      for (int i = 0; i < chosen.length; i++)
+      {
+        f.enter(chosen[i]);
+        t = t.subtasks[chosen[i]];
+      }
+
+    //-- Call the helper function.
+    t.getFirstHelper(f);
+  }
+
+  /** The helper function to calculate the task atoms we have the option to
+   *  achieve right now.
+   *
+   *  @param res
+   *          this frontier stores the task atoms we have incrementally
+   *          calculated so far.
+   *  @return
+   *          <code>true</code> if there can be no more task atoms we have the
+   *          option to achieve next because we have encountered an immediate
+   *          task atom, <code>false</code> otherwise.
+  */
+  private boolean getFirstHelper(Frontier res)
+  {
+    //-- If this is an atomic task network:
+    if (subtasks == null)
+    {
+      //-- If this is an immediate task atom, it has to be decomposed next.
+      if (task.isImmediate())
+      {
+        res.clear();
+        res.add(this);
+        return true;
+      }
+
+      res.add(this);
+      return false;
+    }
+
+    //-- Since no subtask is empty, only the first subtask of an ordered task
+    //-- network has task atoms that can be achieved right now.
+    int n = ordered ? Math.min(1, subtasks.length) : subtasks.length;
+
+    for (int i = 0; i < n; i++)
+    {
+      res.enter(i);
+      boolean immediate = subtasks[i].getFirstHelper(res);
+      res.leave();
+
+      //-- If an immediate task atom was found, just return true.
+      if (immediate)
+        return true;
+    }
+
+    return false;
+  }
+
+  /** To get a subtask of this task network.
+   *
+   *  @param i
+   *          the index of the subtask.
+   *  @return
+   *          the subtask.
+  */
+  public TaskNetwork getSubtask(int i)
+  {
+    return subtasks[i];
+  }
+
+  /** To get the number of subtasks of this task network.
+   *
+   *  @return
+   *          the number of subtasks, which is 0 if this task network is atomic
+   *          or empty.
+  */
+  public int getSubtaskCount()
+  {
+    return (subtasks == null) ? 0 : subtasks.length;
+  }
+
+  /** To return the task atom associated with this task network.
+   *
+   *  @return
+   *          the task atom associated with this task network in case this is
+   *          an atomic task network, <code>null</code> otherwise.
+  */
+  public TaskAtom getTask()
+  {
+    return task;
+  }
+
+  /** The hash code of a task network depends only on its tasks, so that it
+   *  is consistent with <code>equals</code>.
+  */
+  public int hashCode()
+  {
+    return (int)(fingerprint ^ (fingerprint >>> 32));
+  }
+
+  /** Whether or not this is an ordered task network.
+   *
+   *  @return
+   *          <code>true</code> if this task network is ordered,
+   *          <code>false</code> otherwise.
+  */
+  public boolean isOrdered()
+  {
+    return ordered;
+  }
+
+  /** To make a task network out of a given task list. The task list is not
+   *  changed, and the task network does not change when the task list does.
+   *
+   *  @param tl
+   *          the task list.
+   *  @return
+   *          the task network.
+  */
+  public static TaskNetwork of(TaskList tl)
+  {
+    if (tl.subtasks == null)
+      return new TaskNetwork(tl.getTask());
+
+    TaskNetwork[] subs = new TaskNetwork[tl.subtasks.length];
+    int n = 0;
+
+    for (int i = 0; i < subs.length; i++)
+    {
+      TaskNetwork sub = of(tl.subtasks[i]);
+
+      if (sub.size != 0)
+        subs[n++] = sub;
+    }
+
+    if (n == 0)
+      return empty;
+
+    if (n == 1)
+      return subs[0];
+
+    if (n < subs.length)
+    {
+      TaskNetwork[] old = subs;
+      subs = new TaskNetwork[n];
+      System.arraycopy(old, 0, subs, 0, n);
+    }
+
+    return new TaskNetwork(tl.isOrdered(), subs);
+  }
+
+  /** To make a task network in which a task network in this one is replaced
+   *  with another task network. The task networks in this one that are not on
+   *  the way to the task network being replaced are shared with the new one.
+   *
+   *  @param steps
+   *          an array that holds the position of the task network to be
+   *          replaced, as the indexes of the subtasks on the way to it.
+   *  @param start
+   *          where the position starts in <code>steps</code>.
+   *  @param end
+   *          where the position ends in <code>steps</code>.
+   *  @param with
+   *          the task network to replace it.
+   *  @return
+   *          the resulting task network.
+  */
+  TaskNetwork replace(int[] steps, int start, int end, TaskNetwork with)
+  {
+    if (start == end)
+      return with;
+
+    int i = steps[start];
+    TaskNetwork sub = subtasks[i].replace(steps, start + 1, end, with);
+    TaskNetwork[] newSubtasks;
+
+    //-- If the subtask has become empty, leave it out.
+    if (sub.size == 0)
+    {
+      if (subtasks.length == 2)
+        return subtasks[1 - i];
+
+      newSubtasks = new TaskNetwork[subtasks.length - 1];
+      System.arraycopy(subtasks, 0, newSubtasks, 0, i);
+      System.arraycopy(subtasks, i + 1, newSubtasks, i,
+                       subtasks.length - i - 1);
+    }
+    else
+    {
+      newSubtasks = subtasks.clone();
+      newSubtasks[i] = sub;
+    }
+
+    return new TaskNetwork(ordered, newSubtasks);
+  }
+
+  /** To get the number of task atoms in this task network.
+   *
+   *  @return
+   *          the number of task atoms, which is 0 if and only if this task
+   *          network is empty.
+  */
+  public int size()
+  {
+    return size;
+  }
+
+  /** This function returns a printable <code>String</code> representation of
+   *  this task network.
+   *
+   *  @return
+   *          the <code>String</code> representation.
+  */
+  public String toString()
+  {
+    if (subtasks == null)
+      return task.toString();
+
+    String s = ordered ? "(" : "(:unordered";
+
+    for (int i = 0; i < subtasks.length; i++)
+    {
+      if (i > 0 || !ordered)
+        s += " ";
+
+      s += subtasks[i];
+    }
+
+    return s + ")";
+  }
+}
@@ -41,6 +41,89 @@ public abstract class Term extends CompileTimeObject
   */
   public abstract boolean findUnifier(Term t, Term[] binding);
 
+  /** To find a unifier that binds this term to another given term, writing
+   *  it into a binding frame. The terms that have no variables in them do not
+   *  map any variables, so this is the same as the other function.
+   *
+   *  @param t
+   *          the term with which we are finding a unifier.
+   *  @param f
+   *          the binding frame.
+   *  @return
+   *          <code>false</code> if the two terms can not be unified,
+   *          <code>true</code> otherwise. Either way, the variables that were
+   *          mapped are on the trail of the frame.
+  */
+  boolean findUnifier(Term t, BindingFrame f)
+  {
+    return findUnifier(t, f.slots);
+  }
+
+  /** To compute a 64-bit hash code of a given term. Unlike
+   *  <code>hashCode()</code>, this hash code is the same for equal terms even
+   *  when one of them is a list of constant symbols stored as a row of their
+   *  indexes, and it is wide enough for two different terms to be very
+   *  unlikely to have the same one.
+   *
+   *  @param t
+   *          the term.
+   *  @return
+   *          the hash code.
+  */
+  static long fingerprint(Term t)
+  {
+    if (t instanceof TermConstant)
+      return fingerprintConstant(((TermConstant)t).getIndex());
+
+    if (t instanceof TermNumber)
+      return mix(Double.doubleToLongBits(((TermNumber)t).getNumber()) ^
+                 0x5DEECE66DL);
+
+    if (t instanceof TermVariable)
+      return mix(((TermVariable)t).getIndex() ^ 0x2545F4914F6CDD1DL);
+
+    if (t instanceof TermList)
+    {
+      List l = ((TermList)t).getList();
+
+      if (l == null)
+        return 0x6A09E667F3BCC909L;
+
+      return fingerprintList(fingerprint(l.getHead()),
+                             fingerprint(l.getTail()));
+    }
+
+    //-- Any other term is only equal to itself.
+    return mix(System.identityHashCode(t));
+  }
+
+  /** To compute the 64-bit hash code of a constant symbol.
+   *
+   *  @param index
+   *          the index of the constant symbol.
+   *  @return
+   *          the hash code.
+  */
+  static long fingerprintConstant(int index)
+  {
+    return mix(index + 0x9E3779B97F4A7C15L);
+  }
+
+  /** To compute the 64-bit hash code of a list from those of its head and its
+   *  tail.
+   *
+   *  @param head
+   *          the hash code of the head of the list.
+   *  @param tail
+   *          the hash code of the tail of the list.
+   *  @return
+   *          the hash code.
+  */
+  static long fingerprintList(long head, long tail)
+  {
+    return mix(head * 0xBF58476D1CE4E5B9L + tail);
+  }
+
   /** Is this term ground (i.e., has no variables)?
    *
    *  @return
@@ -115,6 +198,22 @@ public abstract class Term extends CompileTimeObject
     return retVal;
   }
 
+  /** To mix the bits of a 64-bit hash code, so that inputs that differ in a
+   *  few bits give hash codes that differ in about half of their bits.
+   *
+   *  @param h
+   *          the hash code.
+   *  @return
+   *          the mixed hash code.
+  */
+  static long mix(long h)
+  {
+    h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+    h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+
+    return h ^ (h >>> 31);
+  }
+
   /** This function is used to print the value of this term.
   */
   public void print()
@@ -85,6 +85,14 @@ public class TermCall extends Term
     return calculate.call(args).findUnifier(t, binding);
   }
 
+  /** Find a unifier between the result of this call term and another given
+   *  term, writing it into a binding frame.
+  */
+  boolean findUnifier(Term t, BindingFrame f)
+  {
+    return calculate.call(args).findUnifier(t, f);
+  }
+
   /** Check the argument list of this call term for variables.
   */
   public boolean isGround()
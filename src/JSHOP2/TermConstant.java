@@ -14,7 +14,7 @@ public class TermConstant extends Term
    *  constant symbols that represent the same thing in different places point
    *  to the corresponding element in this array at run time.
   */
-  private static TermConstant[] constants;
+  private static volatile TermConstant[] constants;
 
   /** Constant symbols are mapped to integers at compile time, and these
    *  integers are used thereafter to represent the constant symbols.
@@ -86,16 +86,35 @@ public class TermConstant extends Term
    *  that there will be no duplicate copies of those symbols. In other words,
    *  all constant symbols that represent the same thing in different places
    *  point to the corresponding element in this array at run time.
+   *  <p>
+   *  The array only ever grows, so that the constant symbols already in use by
+   *  a planner, possibly in another thread, stay valid.
    *
    *  @param size
    *          the number of existing constant symbols.
   */
-  public static void initialize(int size)
+  public static synchronized void initialize(int size)
   {
-    constants = new TermConstant[size];
+    TermConstant[] old = constants;
+    int oldSize = (old == null) ? 0 : old.length;
+
+    if (size <= oldSize)
+      return;
+
+    TermConstant[] newConstants = new TermConstant[size];
 
     for (int i = 0; i < size; i++)
-      constants[i] = new TermConstant(i);
+      newConstants[i] = (i < oldSize) ? old[i] : new TermConstant(i);
+
+    constants = newConstants;
+  }
+
+  /** The hash code of a constant symbol is derived from its index, so that it
+   *  is consistent with <code>equals(Term)</code>.
+  */
+  public int hashCode()
+  {
+    return index * 0x9E3779B1;
   }
 
   /** This function always returns <code>true</code> because a constant symbol
@@ -9,6 +9,15 @@ package JSHOP2;
 */
 public class TermList extends Term
 {
+  /** The hash code of this list term, or 0 if it has not been calculated yet.
+  */
+  private int hash;
+
+  /** Whether or not this list term is the copy of a ground list that is
+   *  shared through <code>TermTable</code>.
+  */
+  private boolean interned;
+
   /** The list this term is representing.
   */
   private List list;
@@ -39,24 +48,61 @@ public class TermList extends Term
     list = new List(headIn, tailIn);
   }
 
+  /** To initialize a list term that is going to be shared through
+   *  <code>TermTable</code>.
+   *
+   *  @param headIn
+   *          the head of the list this term represents.
+   *  @param tailIn
+   *          the tail of the list this term represents.
+   *  @param hashIn
+   *          the hash code of the list this term represents.
+  */
+  TermList(Term headIn, Term tailIn, int hashIn)
+  {
+    list = new List(headIn, tailIn);
+    hash = hashIn;
+    interned = true;
+  }
+
   /** To apply a given binding to the list this term represents.
   */
   public Term bind(Term[] binding)
   {
-    if (list != null)
-      return new TermList(list.bindList(binding));
-    else
+    if (list == null)
       return NIL;
+
+    //-- A shared list is ground, so binding will not change it.
+    if (interned)
+      return this;
+
+    Term head = list.getHead().bind(binding);
+    Term tail = list.getTail().bind(binding);
+
+    //-- If the result is ground, return the shared copy of it.
+    if (TermTable.isShareable(head) && TermTable.isShareable(tail))
+      return TermTable.intern(head, tail);
+
+    return new TermList(new List(head, tail));
   }
 
   /** Whether or not another term is equivalent to this list term.
   */
   public boolean equals(Term t)
   {
+    //-- 't' is this very list.
+    if (t == this)
+      return true;
+
     //-- 't' is not a list.
     if (!(t instanceof TermList))
       return false;
 
+    //-- Lists with different hash codes can not be equal. Only the hash codes
+    //-- that have already been calculated are compared.
+    if (hash != 0 && ((TermList)t).hash != 0 && hash != ((TermList)t).hash)
+      return false;
+
     //-- Both terms are representing NIL, so they are equal.
     if (list == null && ((TermList)t).list == null)
       return true;
@@ -77,6 +123,11 @@ public class TermList extends Term
     if (t instanceof TermVariable)
       return true;
 
+    //-- If both lists are shared, they are ground, and whether or not they can
+    //-- be unified boils down to whether or not they are equal.
+    if (interned && t instanceof TermList && ((TermList)t).interned)
+      return equals(t);
+
     //-- If 't' is not a list, it can not be unified with this term.
     if (!(t instanceof TermList))
       return false;
@@ -90,6 +141,33 @@ public class TermList extends Term
     return list.findUnifierList(((TermList)t).list, binding);
   }
 
+  /** Find a unifier between this list and another given term, writing it
+   *  into a binding frame.
+  */
+  boolean findUnifier(Term t, BindingFrame f)
+  {
+    //-- If 't' is a variable symbol, ignore it.
+    if (t instanceof TermVariable)
+      return true;
+
+    //-- If both lists are shared, they are ground, and whether or not they can
+    //-- be unified boils down to whether or not they are equal.
+    if (interned && t instanceof TermList && ((TermList)t).interned)
+      return equals(t);
+
+    //-- If 't' is not a list, it can not be unified with this term.
+    if (!(t instanceof TermList))
+      return false;
+
+    //-- If this list represents NIL, the only way to unify 't' with it would
+    //-- be for 't' to represent NIL too.
+    if (list == null)
+      return (((TermList)t).list == null);
+
+    //-- Unify the lists.
+    return list.findUnifierList(((TermList)t).list, f);
+  }
+
   /** To get the list this term represents.
    *
    *  @return
@@ -100,11 +178,38 @@ public class TermList extends Term
     return list;
   }
 
+  /** The hash code of a list term is derived from the elements of the list,
+   *  so that it is consistent with <code>equals(Term)</code>.
+  */
+  public int hashCode()
+  {
+    if (list == null)
+      return 0;
+
+    //-- Calculate the hash code only once.
+    if (hash == 0)
+      hash = list.hashCode();
+
+    return hash;
+  }
+
+  /** Whether or not this list term is the copy of a ground list that is
+   *  shared through <code>TermTable</code>.
+   *
+   *  @return
+   *          <code>true</code> if this list term is shared, <code>false</code>
+   *          otherwise.
+  */
+  public boolean isInterned()
+  {
+    return interned;
+  }
+
   /** Whether or not there are any variables in the list this term represents.
   */
   public boolean isGround()
   {
-    return (list == null || list.isGroundList());
+    return (list == null || interned || list.isGroundList());
   }
 
   /** This function produces Java code to create this list term.
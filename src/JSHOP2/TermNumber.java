@@ -62,6 +62,20 @@ public class TermNumber extends Term
     return number;
   }
 
+  /** The hash code of a numerical term is derived from its value, so that it
+   *  is consistent with <code>equals(Term)</code>.
+  */
+  public int hashCode()
+  {
+    //-- Make sure 0.0 and -0.0, which are equal, have the same hash code.
+    if (number == 0)
+      return 0;
+
+    long bits = Double.doubleToLongBits(number);
+
+    return (int)(bits ^ (bits >>> 32));
+  }
+
   /** This function always returns <code>true</code> because a numerical term
    *  is always ground by definition.
   */
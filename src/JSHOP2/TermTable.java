@@ -0,0 +1,211 @@
+package JSHOP2;
+
+/** This class keeps one shared copy of every ground list term that is built
+ *  at run time, so that equal ground lists are represented by the same object
+ *  as long as possible. A shared list carries its hash code with it, and
+ *  comparing it to another shared list is, in most cases, a matter of
+ *  comparing two references.
+ *  <p>
+ *  Each thread has a table of its own, so that looking up a list never needs
+ *  any synchronization. Sharing is only an optimization: two equal lists that
+ *  are not the same object (e.g., because they were made in different
+ *  threads, or because the table was emptied in between) are still compared
+ *  correctly, only more slowly.
+ *
+ *  @version 1.0.3
+*/
+public class TermTable
+{
+  /** The maximum number of lists in a table. When a table gets bigger than
+   *  this, it is emptied so that it does not keep lists alive forever.
+  */
+  private static final int MAX_SIZE = 1 << 18;
+
+  /** The table of the current thread.
+  */
+  private static final ThreadLocal<TermTable> tables =
+    new ThreadLocal<TermTable>()
+    {
+      protected TermTable initialValue()
+      {
+        return new TermTable();
+      }
+    };
+
+  /** The number of lists in this table.
+  */
+  private int size;
+
+  /** The lists in this table, in an open-addressing hash table. The length of
+   *  this array is always a power of two.
+  */
+  private TermList[] table;
+
+  /** To initialize an empty table.
+  */
+  private TermTable()
+  {
+    table = new TermList[1024];
+  }
+
+  /** Whether or not a term is ground and can be part of a shared list, i.e.,
+   *  whether it is a constant symbol, a number, <code>NIL</code> or a shared
+   *  list itself.
+   *
+   *  @param t
+   *          the term.
+   *  @return
+   *          <code>true</code> if the term can be part of a shared list,
+   *          <code>false</code> otherwise.
+  */
+  public static boolean isShareable(Term t)
+  {
+    if (t instanceof TermList)
+      return t.isNil() || ((TermList)t).isInterned();
+
+    return (t instanceof TermConstant) || (t instanceof TermNumber);
+  }
+
+  /** To return the shared copy of the list with a given head and a given
+   *  tail. The list is made and added to the table if it is not there yet.
+   *
+   *  @param head
+   *          the head of the list, for which <code>isShareable</code> must
+   *          return <code>true</code>.
+   *  @param tail
+   *          the tail of the list, for which <code>isShareable</code> must
+   *          return <code>true</code>.
+   *  @return
+   *          the shared copy of the list.
+  */
+  public static TermList intern(Term head, Term tail)
+  {
+    return tables.get().lookup(head, tail);
+  }
+
+  /** To return the shared copy of a given ground term. If the term is not a
+   *  list, or if it is not ground, it is returned as it is.
+   *
+   *  @param t
+   *          the term.
+   *  @return
+   *          the shared copy of the term.
+  */
+  public static Term intern(Term t)
+  {
+    if (!(t instanceof TermList) || isShareable(t))
+      return t;
+
+    List l = ((TermList)t).getList();
+
+    Term head = intern(l.getHead());
+    Term tail = intern(l.getTail());
+
+    if (!isShareable(head) || !isShareable(tail))
+      return t;
+
+    return intern(head, tail);
+  }
+
+  /** To return the shared copy of a list of constant symbols.
+   *
+   *  @param row
+   *          the indexes of the constant symbols in the list.
+   *  @return
+   *          the shared copy of the list.
+  */
+  public static TermList intern(int[] row)
+  {
+    TermTable table = tables.get();
+    TermList t = TermList.NIL;
+
+    for (int k = row.length - 1; k >= 0; k--)
+      t = table.lookup(TermConstant.getConstant(row[k]), t);
+
+    return t;
+  }
+
+  /** To look for the list with a given head and a given tail in this table,
+   *  adding it if it is not there yet.
+   *
+   *  @param head
+   *          the head of the list.
+   *  @param tail
+   *          the tail of the list.
+   *  @return
+   *          the shared copy of the list.
+  */
+  private TermList lookup(Term head, Term tail)
+  {
+    //-- This must be the same as the hash code of the resulting list.
+    int hash = List.hashCode(head, tail);
+
+    int mask = table.length - 1;
+    int i = (hash ^ (hash >>> 16)) & mask;
+
+    TermList t;
+
+    while ((t = table[i]) != null)
+    {
+      if (t.hashCode() == hash)
+      {
+        List l = t.getList();
+
+        if (head.equals(l.getHead()) && tail.equals(l.getTail()))
+          return t;
+      }
+
+      i = (i + 1) & mask;
+    }
+
+    t = new TermList(head, tail, hash);
+
+    if (++size > (table.length >> 1))
+    {
+      if (size > MAX_SIZE)
+      {
+        //-- Start over with an empty table.
+        table = new TermList[1024];
+        size = 1;
+      }
+      else
+        resize();
+
+      mask = table.length - 1;
+      i = (hash ^ (hash >>> 16)) & mask;
+
+      while (table[i] != null)
+        i = (i + 1) & mask;
+    }
+
+    table[i] = t;
+
+    return t;
+  }
+
+  /** To double the size of this table.
+  */
+  private void resize()
+  {
+    TermList[] old = table;
+    table = new TermList[old.length << 1];
+
+    int mask = table.length - 1;
+
+    for (int j = 0; j < old.length; j++)
+    {
+      TermList t = old[j];
+
+      if (t != null)
+      {
+        int hash = t.hashCode();
+        int i = (hash ^ (hash >>> 16)) & mask;
+
+        while (table[i] != null)
+          i = (i + 1) & mask;
+
+        table[i] = t;
+      }
+    }
+  }
+}
@@ -20,7 +20,7 @@ public class TermVariable extends Term
    *  different places point to the corresponding element in this array at run
    *  time.
   */
-  private static TermVariable[] variables;
+  private static volatile TermVariable[] variables;
 
   /** To initialize this variable symbol.
    *
@@ -74,6 +74,18 @@ public class TermVariable extends Term
     return t.equals(binding[index]);
   }
 
+  /** Find a unifier between this variable symbol and another given term,
+   *  writing it into a binding frame.
+  */
+  boolean findUnifier(Term t, BindingFrame f)
+  {
+    //-- If 't' is a variable symbol, skip it.
+    if (t instanceof TermVariable)
+      return true;
+
+    return f.bind(index, t);
+  }
+
   /** To get the index for this variable symbol.
    *
    *  @return
@@ -101,16 +113,27 @@ public class TermVariable extends Term
    *  symbols. In other words, all variable symbols that represent the same
    *  thing in different places point to the corresponding element in this
    *  array at run time.
+   *  <p>
+   *  The array only ever grows, so that the variable symbols already in use by
+   *  a planner, possibly in another thread, stay valid.
    *
    *  @param size
    *          the number of existing variable symbols.
   */
-  public static void initialize(int size)
+  public static synchronized void initialize(int size)
   {
-    variables = new TermVariable[size];
+    TermVariable[] old = variables;
+    int oldSize = (old == null) ? 0 : old.length;
+
+    if (size <= oldSize)
+      return;
+
+    TermVariable[] newVariables = new TermVariable[size];
 
     for (int i = 0; i < size; i++)
-      variables[i] = new TermVariable(i);
+      newVariables[i] = (i < oldSize) ? old[i] : new TermVariable(i);
+
+    variables = newVariables;
   }
 
   /** This function always returns <code>false</code> because a variable symbol